@@ -3,11 +3,16 @@ package com.demo.backend;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.camel.ProducerTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Backend Controller - Demonstrates Apache Camel with OpenTelemetry Java Agent instrumentation
@@ -32,29 +37,37 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class BackendController {
 
+    private static final byte[] NULL_JSON = "null".getBytes(StandardCharsets.UTF_8);
+
     @Autowired
     private ProducerTemplate producerTemplate;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Value("${upstream.response.mode:typed}")
+    private UpstreamResponseMode responseMode;
+
+    @Value("${upstream.async.enabled:true}")
+    private boolean asyncEnabled;
+
     @GetMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> getRequest() {
+    public CompletableFuture<ResponseEntity<?>> getRequest() {
         return proxyRequest(HttpMethod.GET, null);
     }
 
     @PostMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> postRequest(@RequestBody(required = false) Map<String, Object> payload) {
+    public CompletableFuture<ResponseEntity<?>> postRequest(@RequestBody(required = false) Map<String, Object> payload) {
         return proxyRequest(HttpMethod.POST, payload);
     }
 
     @PutMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> putRequest(@RequestBody(required = false) Map<String, Object> payload) {
+    public CompletableFuture<ResponseEntity<?>> putRequest(@RequestBody(required = false) Map<String, Object> payload) {
         return proxyRequest(HttpMethod.PUT, payload);
     }
 
     @DeleteMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> deleteRequest() {
+    public CompletableFuture<ResponseEntity<?>> deleteRequest() {
         return proxyRequest(HttpMethod.DELETE, null);
     }
 
@@ -75,8 +88,13 @@ public class BackendController {
      * - Each step in the route pipeline
      *
      * All tracing happens automatically with zero code changes needed.
+     *
+     * With upstream.async.enabled=true (the default) the route is invoked with
+     * asyncRequestBodyAndHeaders and the CompletableFuture is returned to Spring MVC, so
+     * the servlet thread is free while camel-http waits on the upstream. The agent
+     * carries the trace context onto the Camel pool thread.
      */
-    private ResponseEntity<Map<String, Object>> proxyRequest(
+    private CompletableFuture<ResponseEntity<?>> proxyRequest(
             HttpMethod method,
             Map<String, Object> payload) {
 
@@ -90,38 +108,75 @@ public class BackendController {
             // The route will:
             // 1. Receive the message at direct:proxyRequest
             // 2. Route it to the HTTP endpoint
-            // 3. Return the upstream response as JSON string
+            // 3. Return the upstream response as a String, Map or byte[] (see UpstreamResponseMode)
             // All of this is automatically traced by the Java Agent
-            String responseJson = producerTemplate.requestBodyAndHeaders(
-                "direct:proxyRequest",
-                payload,
-                headers,
-                String.class
-            );
+            //
+            // In async mode the route runs on the CamelAsyncConfig pool and this thread
+            // returns to Tomcat; Spring MVC writes the response when the future completes.
+            CompletableFuture<Object> reply = asyncEnabled
+                    ? producerTemplate.asyncRequestBodyAndHeaders("direct:proxyRequest", payload, headers)
+                    : CompletableFuture.completedFuture(producerTemplate.requestBodyAndHeaders("direct:proxyRequest", payload, headers));
+
+            return reply.handle((upstreamBody, error) -> error == null
+                    ? toResponse(method, upstreamBody)
+                    : errorResponse(error));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(errorResponse(e));
+        }
+    }
 
-            // Parse the JSON string response
-            @SuppressWarnings("unchecked")
-            Map<String, Object> upstreamResponse = objectMapper.readValue(responseJson, Map.class);
+    private ResponseEntity<?> toResponse(HttpMethod method, Object upstreamBody) {
+        try {
+            if (responseMode == UpstreamResponseMode.PASSTHROUGH) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(wrapRaw(method, (byte[]) upstreamBody));
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("service", "backend-agent-camel");
             response.put("method", method.name());
-            response.put("upstream", upstreamResponse);
+            response.put("upstream", responseMode == UpstreamResponseMode.TYPED
+                    ? upstreamBody
+                    : objectMapper.readValue((String) upstreamBody, Map.class));
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
-            // Log the full exception for debugging
-            e.printStackTrace();
-
-            // Java Agent automatically records exceptions in spans
-            // No manual exception recording needed
-
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("service", "backend-agent-camel");
-            errorResponse.put("error", "Failed to connect to upstream service");
-            errorResponse.put("message", e.getMessage());
-            errorResponse.put("exceptionType", e.getClass().getName());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+            return errorResponse(e);
         }
     }
+
+    private ResponseEntity<?> errorResponse(Throwable error) {
+        // Failures of the async reply arrive wrapped in a CompletionException
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+
+        // Log the full exception for debugging
+        e.printStackTrace();
+
+        // Java Agent automatically records exceptions in spans
+        // No manual exception recording needed
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("service", "backend-agent-camel");
+        errorResponse.put("error", "Failed to connect to upstream service");
+        errorResponse.put("message", e.getMessage());
+        errorResponse.put("exceptionType", e.getClass().getName());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    /**
+     * Builds {"service":"backend-agent-camel","method":"GET","upstream":<upstream body>} by copying
+     * the upstream bytes between a fixed prefix and suffix, without parsing them.
+     */
+    private static byte[] wrapRaw(HttpMethod method, byte[] upstreamJson) {
+        byte[] prefix = ("{\"service\":\"backend-agent-camel\",\"method\":\"" + method.name() + "\",\"upstream\":")
+                .getBytes(StandardCharsets.UTF_8);
+        boolean empty = upstreamJson == null || upstreamJson.length == 0;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(prefix.length + (empty ? 4 : upstreamJson.length) + 1);
+        out.writeBytes(prefix);
+        out.writeBytes(empty ? NULL_JSON : upstreamJson);
+        out.write('}');
+        return out.toByteArray();
+    }
 }
@@ -0,0 +1,52 @@
+package com.demo.backend;
+
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.ThreadPoolProfileBuilder;
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.apache.camel.util.concurrent.ThreadPoolRejectedPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Thread pool and ProducerTemplate for asynchronous Camel request/reply
+ * (upstream.async.enabled=true).
+ *
+ * BackendController sends to direct:proxyRequest with asyncRequestBodyAndHeaders, which
+ * runs the route on this pool and returns a CompletableFuture to Spring MVC. The servlet
+ * thread is released while camel-http waits on the upstream; camel-http itself is still
+ * blocking, so upstream.async.pool-size caps the in-flight upstream calls.
+ *
+ * The OpenTelemetry Java agent instruments executors and carries the current context
+ * into tasks submitted to this pool, so no wrapping is needed here.
+ */
+@Configuration
+public class CamelAsyncConfig {
+
+    @Bean
+    public ExecutorService upstreamProxyExecutor(
+            CamelContext camelContext,
+            @Value("${upstream.async.pool-size:200}") int poolSize,
+            @Value("${upstream.async.queue-size:1000}") int queueSize) {
+
+        ThreadPoolProfile profile = new ThreadPoolProfileBuilder("upstream-proxy")
+                .poolSize(poolSize)
+                .maxPoolSize(poolSize)
+                .maxQueueSize(queueSize)
+                .rejectedPolicy(ThreadPoolRejectedPolicy.Abort)
+                .build();
+
+        // Managed by Camel: shut down with the CamelContext
+        return camelContext.getExecutorServiceManager().newThreadPool(this, "upstream-proxy", profile);
+    }
+
+    @Bean
+    public ProducerTemplate producerTemplate(CamelContext camelContext, ExecutorService upstreamProxyExecutor) {
+        ProducerTemplate producerTemplate = camelContext.createProducerTemplate();
+        producerTemplate.setExecutorService(upstreamProxyExecutor);
+        return producerTemplate;
+    }
+}
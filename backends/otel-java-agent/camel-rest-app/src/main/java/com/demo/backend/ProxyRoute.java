@@ -1,9 +1,13 @@
 package com.demo.backend;
 
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.ProcessorDefinition;
+import org.apache.camel.model.dataformat.JsonLibrary;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 /**
  * Apache Camel Route - Demonstrates routing patterns with OpenTelemetry integration
  *
@@ -24,6 +28,9 @@ public class ProxyRoute extends RouteBuilder {
     @Value("${upstream.service.url}")
     private String upstreamUrl;
 
+    @Value("${upstream.response.mode:typed}")
+    private UpstreamResponseMode responseMode;
+
     @Override
     public void configure() throws Exception {
         /**
@@ -32,12 +39,12 @@ public class ProxyRoute extends RouteBuilder {
          * Flow:
          * 1. Receives message with headers: HTTP_METHOD, PAYLOAD
          * 2. Routes to HTTP endpoint using dynamic URI
-         * 3. Returns upstream response as JSON
+         * 3. Returns upstream response in the form selected by upstream.response.mode
          *
          * The direct: endpoint is synchronous and in-memory, perfect for
          * request/response patterns where the controller needs a reply.
          */
-        from("direct:proxyRequest")
+        ProcessorDefinition<?> route = from("direct:proxyRequest")
             .routeId("proxy-to-upstream")
             .log("Camel route processing ${header.HTTP_METHOD} request")
 
@@ -47,6 +54,12 @@ public class ProxyRoute extends RouteBuilder {
             // Set Content-Type for requests with body
             .setHeader("Content-Type", constant("application/json"))
 
+            // camel-http sends the body as a stream; a Map payload must be serialized first
+            .choice()
+                .when(body().isNotNull())
+                    .marshal().json(JsonLibrary.Jackson)
+            .end()
+
             // Route to HTTP endpoint - Camel will automatically:
             // - Make the HTTP call
             // - Propagate trace context via W3C headers
@@ -54,9 +67,18 @@ public class ProxyRoute extends RouteBuilder {
             // - Handle request/response serialization
             .to(upstreamUrl + "/api/backend_to_upstream?bridgeEndpoint=true&throwExceptionOnFailure=false")
 
-            .log("Camel route completed with status: ${header.CamelHttpResponseCode}")
+            .log("Camel route completed with status: ${header.CamelHttpResponseCode}");
 
-            // Convert body to String for debugging
-            .convertBodyTo(String.class);
+        // Hand the response body to the controller with as few JSON passes as the mode allows
+        switch (responseMode) {
+            case TYPED:
+                route.unmarshal().json(JsonLibrary.Jackson, Map.class);
+                break;
+            case PASSTHROUGH:
+                route.convertBodyTo(byte[].class);
+                break;
+            default:
+                route.convertBodyTo(String.class);
+        }
     }
 }
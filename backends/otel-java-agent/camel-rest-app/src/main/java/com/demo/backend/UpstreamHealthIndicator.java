@@ -1,42 +1,138 @@
 package com.demo.backend;
 
-import org.springframework.beans.factory.annotation.Autowired;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstream health, served from memory.
+ *
+ * A background prober calls the upstream's /actuator/health every
+ * upstream.health.interval and caches the result. health() only reads the cache, so
+ * Docker/Kubernetes probes and the frontend's polling never fan out to the upstream.
+ *
+ * A cached result older than upstream.health.ttl (prober stuck on a slow upstream)
+ * is reported as UNKNOWN rather than served stale.
+ *
+ * Probe latency is recorded in the upstream.health.probe timer as a histogram,
+ * tagged with outcome=UP|DOWN.
+ */
 @Component
 public class UpstreamHealthIndicator implements HealthIndicator {
 
-    @Autowired
-    private RestTemplate restTemplate;
+    private final RestTemplate restTemplate;
+    private final String upstreamUrl;
+    private final Duration interval;
+    private final Duration ttl;
+    private final Timer upLatency;
+    private final Timer downLatency;
+    private final ScheduledExecutorService prober;
 
-    @Value("${upstream.service.url}")
-    private String upstreamUrl;
+    private volatile ProbeResult lastResult;
 
-    @Override
-    public Health health() {
-        try {
-            long startTime = System.currentTimeMillis();
-            String url = upstreamUrl + "/actuator/health";
+    public UpstreamHealthIndicator(
+            RestTemplate restTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${upstream.service.url}") String upstreamUrl,
+            @Value("${upstream.health.interval:10s}") Duration interval,
+            @Value("${upstream.health.ttl:30s}") Duration ttl) {
+        this.restTemplate = restTemplate;
+        this.upstreamUrl = upstreamUrl;
+        this.interval = interval;
+        this.ttl = ttl;
+        this.upLatency = probeTimer(meterRegistry, "UP");
+        this.downLatency = probeTimer(meterRegistry, "DOWN");
+        this.prober = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upstream-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
-            restTemplate.getForObject(url, String.class);
+    private static Timer probeTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("upstream.health.probe")
+                .description("Latency of background upstream health probes")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
-            long responseTime = System.currentTimeMillis() - startTime;
+    @PostConstruct
+    public void start() {
+        prober.scheduleWithFixedDelay(this::probe, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
 
-            return Health.up()
+    @PreDestroy
+    public void stop() {
+        prober.shutdownNow();
+    }
+
+    private void probe() {
+        long startTime = System.nanoTime();
+        Health health;
+        try {
+            restTemplate.getForObject(upstreamUrl + "/actuator/health", String.class);
+            health = Health.up()
                     .withDetail("upstream", "UP")
-                    .withDetail("responseTime", responseTime + "ms")
                     .withDetail("url", upstreamUrl)
                     .build();
         } catch (Exception e) {
-            return Health.down()
+            health = Health.down()
                     .withDetail("upstream", "DOWN")
-                    .withDetail("error", e.getMessage())
+                    .withDetail("error", String.valueOf(e.getMessage()))
+                    .withDetail("url", upstreamUrl)
+                    .build();
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        (health.getStatus().getCode().equals("UP") ? upLatency : downLatency).record(elapsed, TimeUnit.NANOSECONDS);
+        lastResult = new ProbeResult(health, Instant.now());
+    }
+
+    @Override
+    public Health health() {
+        ProbeResult result = lastResult;
+        if (result == null) {
+            return Health.unknown()
+                    .withDetail("upstream", "UNKNOWN")
+                    .withDetail("reason", "No probe has completed yet")
                     .withDetail("url", upstreamUrl)
                     .build();
         }
+        if (result.checkedAt.plus(ttl).isBefore(Instant.now())) {
+            return Health.unknown()
+                    .withDetail("upstream", "UNKNOWN")
+                    .withDetail("reason", "Last probe result is older than " + ttl)
+                    .withDetail("checkedAt", result.checkedAt.toString())
+                    .withDetail("url", upstreamUrl)
+                    .build();
+        }
+        return Health.status(result.health.getStatus())
+                .withDetails(result.health.getDetails())
+                .withDetail("checkedAt", result.checkedAt.toString())
+                .build();
+    }
+
+    private static class ProbeResult {
+
+        private final Health health;
+        private final Instant checkedAt;
+
+        ProbeResult(Health health, Instant checkedAt) {
+            this.health = health;
+            this.checkedAt = checkedAt;
+        }
     }
 }
@@ -0,0 +1,19 @@
+package com.demo.backend;
+
+/**
+ * How the Camel proxy route hands the upstream response body to BackendController
+ * (upstream.response.mode).
+ *
+ * BUFFERED    - body converted to a String, parsed by the controller with ObjectMapper,
+ *               then re-serialized by Spring MVC: three JSON passes per request
+ * TYPED       - body unmarshalled once into a Map by the route (Jackson reads the
+ *               response stream directly), then serialized by Spring MVC: two passes
+ * PASSTHROUGH - body read as raw bytes and written into the response with the
+ *               "service" / "method" wrapper fields spliced around it: no JSON parsing.
+ *               The upstream body is not validated, so it must be a JSON document.
+ */
+public enum UpstreamResponseMode {
+    BUFFERED,
+    TYPED,
+    PASSTHROUGH
+}
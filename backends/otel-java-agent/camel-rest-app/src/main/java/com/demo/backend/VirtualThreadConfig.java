@@ -0,0 +1,80 @@
+package com.demo.backend;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in virtual-thread execution mode (spring.threads.virtual.enabled=true).
+ *
+ * Replaces Tomcat's bounded worker pool with a virtual-thread-per-request executor,
+ * so a slow upstream parks cheap virtual threads instead of exhausting the 200
+ * platform threads. With upstream.async.enabled=false the direct:proxyRequest route
+ * invoked by BackendController.proxyRequest runs on the caller's thread, so it blocks
+ * a virtual thread without code changes. With async enabled the route runs on the
+ * CamelAsyncConfig pool.
+ *
+ * The OpenTelemetry Java agent keeps the current context in a ThreadLocal, which
+ * virtual threads support, so spans and traceparent propagation behave exactly as
+ * on platform threads.
+ *
+ * Virtual threads need Java 21+. This module compiles for Java 17, so the executor
+ * is looked up reflectively. On an older runtime startup fails instead of silently
+ * serving on platform threads; build the image with JAVA_VERSION=21 to use it.
+ *
+ * Tomcat only shuts down executors it created itself, so the customizer bean owns the
+ * executor and shuts it down when the context closes (after Tomcat has stopped).
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean(destroyMethod = "shutdown")
+    public VirtualThreadExecutorCustomizer virtualThreadProtocolHandlerCustomizer() {
+        log.info("Serving requests on virtual threads");
+        return new VirtualThreadExecutorCustomizer(newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Hands Tomcat the virtual-thread executor.
+     */
+    public static class VirtualThreadExecutorCustomizer implements TomcatProtocolHandlerCustomizer<ProtocolHandler> {
+
+        private final ExecutorService executor;
+
+        VirtualThreadExecutorCustomizer(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void customize(ProtocolHandler protocolHandler) {
+            protocolHandler.setExecutor(executor);
+        }
+
+        public ExecutorService getExecutor() {
+            return executor;
+        }
+
+        public void shutdown() {
+            executor.shutdown();
+        }
+    }
+
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true requires Java 21+, running on "
+                    + Runtime.version(), e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.demo.backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
@@ -13,7 +14,7 @@ public class BackendApplication {
     }
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HttpComponentsClientHttpRequestFactory upstreamRequestFactory) {
+        return new RestTemplate(upstreamRequestFactory);
     }
 }
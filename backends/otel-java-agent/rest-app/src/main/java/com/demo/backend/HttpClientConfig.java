@@ -0,0 +1,133 @@
+package com.demo.backend;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pooled, keep-alive HTTP client for calls to the upstream service.
+ *
+ * The default RestTemplate uses the JDK's SimpleClientHttpRequestFactory, which opens
+ * a new connection for every request. Here we back the RestTemplate with Apache
+ * HttpClient and a PoolingHttpClientConnectionManager so connections to the upstream
+ * are reused across requests.
+ *
+ * Pool sizing, timeouts, keep-alive and idle eviction are configured through the
+ * upstream.client.* properties in application.properties.
+ *
+ * Metrics exposed on /actuator/metrics:
+ * - httpcomponents.httpclient.pool.total.max / .total.connections / .total.pending / .route.max.default
+ * - upstream.client.pool.lease - time spent waiting to lease a connection from the pool
+ */
+@Configuration
+public class HttpClientConfig {
+
+    private static final String POOL_NAME = "upstream";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager upstreamConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${upstream.client.max-total:200}") int maxTotal,
+            @Value("${upstream.client.max-per-route:100}") int maxPerRoute,
+            @Value("${upstream.client.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+
+        Timer leaseTimer = Timer.builder("upstream.client.pool.lease")
+                .description("Time spent waiting to lease a connection from the upstream pool")
+                .tag("httpclient", POOL_NAME)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        PoolingHttpClientConnectionManager connectionManager = new LeaseTimingConnectionManager(leaseTimer);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity((int) validateAfterInactivity.toMillis());
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, POOL_NAME).bindTo(meterRegistry);
+
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient upstreamHttpClient(
+            PoolingHttpClientConnectionManager upstreamConnectionManager,
+            @Value("${upstream.client.keep-alive:30s}") Duration keepAlive,
+            @Value("${upstream.client.idle-eviction:60s}") Duration idleEviction) {
+
+        return HttpClients.custom()
+                .setConnectionManager(upstreamConnectionManager)
+                // Honour the server's Keep-Alive header, but never hold a connection longer than keepAlive
+                .setKeepAliveStrategy((response, context) -> {
+                    long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive.toMillis()) : keepAlive.toMillis();
+                })
+                // Background thread closes expired and idle connections so stale sockets are not leased
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEviction.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public HttpComponentsClientHttpRequestFactory upstreamRequestFactory(
+            CloseableHttpClient upstreamHttpClient,
+            @Value("${upstream.client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${upstream.client.read-timeout:10s}") Duration readTimeout,
+            @Value("${upstream.client.connection-request-timeout:1s}") Duration connectionRequestTimeout) {
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(upstreamHttpClient);
+        requestFactory.setConnectTimeout((int) connectTimeout.toMillis());
+        requestFactory.setReadTimeout((int) readTimeout.toMillis());
+        requestFactory.setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis());
+        return requestFactory;
+    }
+
+    /**
+     * Records how long each request waits for a pooled connection.
+     * A growing lease time means the pool is too small for the offered load.
+     */
+    private static class LeaseTimingConnectionManager extends PoolingHttpClientConnectionManager {
+
+        private final Timer leaseTimer;
+
+        LeaseTimingConnectionManager(Timer leaseTimer) {
+            this.leaseTimer = leaseTimer;
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ConnectionRequest delegate = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return delegate.get(timeout, timeUnit);
+                    } finally {
+                        leaseTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return delegate.cancel();
+                }
+            };
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.demo.backend;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 /**
  * Backend Application with Apache Camel Integration
  *
@@ -41,9 +44,15 @@ public class BackendApplication {
     /**
      * Provides a RestTemplate bean for health checks.
      * The main request flow uses Camel's HTTP component instead.
+     *
+     * Timeouts keep a hung upstream from stalling the background health prober.
      */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     @Value("${upstream.health.timeout:5s}") Duration timeout) {
+        return builder
+                .setConnectTimeout(timeout)
+                .setReadTimeout(timeout)
+                .build();
     }
 }
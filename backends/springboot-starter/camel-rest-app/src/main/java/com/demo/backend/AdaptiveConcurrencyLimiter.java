@@ -0,0 +1,203 @@
+package com.demo.backend;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.Span;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive concurrency limit for /api/frontend_to_backend (upstream.concurrency-limit.enabled=true).
+ *
+ * The permit is held from the start of proxyRequest until the route reply completes, so
+ * in async mode it also bounds the exchanges queued on the upstream-proxy pool.
+ *
+ * Instead of a fixed cap, the limit follows the upstream's round-trip time:
+ * - a long-term RTT average tracks what the upstream does when it is not overloaded
+ * - after each successful request the limit moves towards
+ *   limit * gradient + sqrt(limit), where gradient = clamp(tolerance * longRtt / rtt, 0.5, 1)
+ *   - RTT at or below tolerance * longRtt lets the limit grow by about sqrt(limit)
+ *   - RTT above it (requests queueing upstream) shrinks the limit proportionally
+ * - a failed upstream call cuts the limit by 10% (AIMD-style backoff)
+ * - only requests that made the upstream call themselves (Permit.markUpstreamCall) count;
+ *   cache hits and SingleFlight followers share someone else's call, and their near-zero
+ *   or borrowed RTT would drag the long-term average down
+ * - the limit only grows while at least half of it is in use, so a quiet period does
+ *   not inflate it
+ *
+ * Requests over the limit are rejected with a 503 before any upstream work is done, and
+ * get a "concurrency-limit-exceeded" span event with the current limit and in-flight count.
+ *
+ * OTel metrics (meter com.demo.backend):
+ * - upstream.concurrency.limit     - current limit
+ * - upstream.concurrency.in_flight - requests holding a permit
+ * - upstream.concurrency.rejected  - requests rejected because the limit was reached
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final AttributeKey<Long> LIMIT = AttributeKey.longKey("upstream.concurrency.limit");
+    private static final AttributeKey<Long> IN_FLIGHT = AttributeKey.longKey("upstream.concurrency.in_flight");
+
+    // Weight of each sample in the long-term RTT average (about the last 100 requests)
+    private static final double LONG_RTT_ALPHA = 2.0 / 101;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongCounter rejected;
+
+    // Guarded by this
+    private double limit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(
+            OpenTelemetry openTelemetry,
+            @Value("${upstream.concurrency-limit.enabled:false}") boolean enabled,
+            @Value("${upstream.concurrency-limit.initial-limit:20}") int initialLimit,
+            @Value("${upstream.concurrency-limit.min-limit:5}") int minLimit,
+            @Value("${upstream.concurrency-limit.max-limit:200}") int maxLimit,
+            @Value("${upstream.concurrency-limit.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${upstream.concurrency-limit.smoothing:0.2}") double smoothing) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        Meter meter = openTelemetry.getMeter("com.demo.backend");
+        meter.gaugeBuilder("upstream.concurrency.limit")
+                .setDescription("Current adaptive concurrency limit")
+                .ofLongs()
+                .buildWithCallback(measurement -> measurement.record(getLimit()));
+        meter.gaugeBuilder("upstream.concurrency.in_flight")
+                .setDescription("Requests holding a concurrency permit")
+                .ofLongs()
+                .buildWithCallback(measurement -> measurement.record(inFlight.get()));
+        this.rejected = meter.counterBuilder("upstream.concurrency.rejected")
+                .setDescription("Requests rejected because the concurrency limit was reached")
+                .build();
+    }
+
+    /**
+     * Takes a permit for one request, or returns null when the limit is reached (the
+     * rejection is recorded on the span). Every permit must be released.
+     */
+    public Permit tryAcquire(Span span) {
+        if (!enabled) {
+            return Permit.NOOP;
+        }
+        int currentLimit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                rejected.add(1);
+                span.addEvent("concurrency-limit-exceeded", Attributes.of(
+                        LIMIT, (long) currentLimit,
+                        IN_FLIGHT, (long) current));
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(this, current + 1, System.nanoTime());
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_ALPHA;
+        }
+        // Application-limited: the RTT says nothing about whether more would fit
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        setLimit(limit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private synchronized void onDropped() {
+        setLimit(limit * BACKOFF_RATIO);
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * A request's hold on the limit, released by the first of onSuccess (upstream
+     * answered), onDropped (upstream failed or timed out) or onIgnore (the outcome says
+     * nothing about upstream capacity, e.g. circuit open). Later calls do nothing.
+     *
+     * onSuccess and onDropped only adjust the limit if markUpstreamCall was called, i.e.
+     * this request sent the upstream call itself; otherwise they act like onIgnore.
+     */
+    public static class Permit {
+
+        static final Permit NOOP = new Permit(null, 0, 0);
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final int inFlightAtStart;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean calledUpstream;
+
+        Permit(AdaptiveConcurrencyLimiter limiter, int inFlightAtStart, long startNanos) {
+            this.limiter = limiter;
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Called where the upstream request is actually made (the SingleFlight leader on a
+         * cache miss).
+         */
+        public void markUpstreamCall() {
+            if (limiter != null) {
+                calledUpstream = true;
+            }
+        }
+
+        public void onSuccess() {
+            if (release() && calledUpstream) {
+                limiter.onSample(System.nanoTime() - startNanos, inFlightAtStart);
+            }
+        }
+
+        public void onDropped() {
+            if (release() && calledUpstream) {
+                limiter.onDropped();
+            }
+        }
+
+        public void onIgnore() {
+            release();
+        }
+
+        private boolean release() {
+            if (limiter == null || !released.compareAndSet(false, true)) {
+                return false;
+            }
+            limiter.inFlight.decrementAndGet();
+            return true;
+        }
+    }
+}
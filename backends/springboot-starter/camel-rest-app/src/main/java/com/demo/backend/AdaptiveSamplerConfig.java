@@ -0,0 +1,39 @@
+package com.demo.backend;
+
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Installs AdaptiveRateSampler in the OpenTelemetry SDK (tracing.adaptive-sampler.enabled=true).
+ *
+ * The Spring Boot Starter applies AutoConfigurationCustomizerProvider beans while it
+ * builds the SDK. The customizer replaces the configured sampler (otel.traces.sampler,
+ * parentbased_always_on by default) with parentBased(AdaptiveRateSampler), registers the
+ * sampler's span counter and adds its resource attributes. The sampler bean is also a
+ * MeterBinder, bound to the actuator registry by Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracing.adaptive-sampler.enabled", havingValue = "true")
+public class AdaptiveSamplerConfig {
+
+    @Bean
+    public AdaptiveRateSampler adaptiveRateSampler(
+            @Value("${tracing.adaptive-sampler.target-spans-per-second:100}") double targetSpansPerSecond,
+            @Value("${tracing.adaptive-sampler.adjust-interval:1s}") Duration adjustInterval) {
+        return new AdaptiveRateSampler(targetSpansPerSecond, adjustInterval);
+    }
+
+    @Bean
+    public AutoConfigurationCustomizerProvider adaptiveSamplerCustomizer(AdaptiveRateSampler adaptiveRateSampler) {
+        return customizer -> customizer
+                .addSamplerCustomizer((sampler, config) -> Sampler.parentBased(adaptiveRateSampler))
+                .addTracerProviderCustomizer((builder, config) -> builder.addSpanProcessor(adaptiveRateSampler.spanCounter()))
+                .addResourceCustomizer((resource, config) -> resource.merge(adaptiveRateSampler.resource()));
+    }
+}
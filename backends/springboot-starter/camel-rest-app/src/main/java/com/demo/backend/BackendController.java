@@ -1,17 +1,30 @@
 package com.demo.backend;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
 import org.apache.camel.ProducerTemplate;
+import org.apache.camel.http.base.HttpOperationFailedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Backend Controller - Demonstrates Apache Camel with OpenTelemetry instrumentation
@@ -27,38 +40,182 @@ import java.util.Map;
  * - All Camel routes (creates spans for each route step)
  * - HTTP component calls (creates client spans with context propagation)
  * - Route exchanges (propagates trace context)
+ *
+ * /api/frontend_to_backend/batch proxies many operations in one request: a
+ * "proxy-batch" span with one "proxy-batch-item" child span per item.
  */
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "*")
 public class BackendController {
 
+    private static final byte[] NULL_JSON = "null".getBytes(StandardCharsets.UTF_8);
+
+    private static final ProxySpanRecorder PROXY_SPANS = new ProxySpanRecorder("direct:proxyRequest");
+
     @Autowired
     private ProducerTemplate producerTemplate;
 
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Value("${upstream.response.mode:typed}")
+    private UpstreamResponseMode responseMode;
+
+    @Value("${upstream.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Autowired
+    private PayloadCapture payloadCapture;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private UpstreamResilience upstreamResilience;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Value("${upstream.batch.max-items:100}")
+    private int batchMaxItems;
+
+    private final Tracer tracer;
+
+    public BackendController(OpenTelemetry openTelemetry) {
+        this.tracer = openTelemetry.getTracer("com.demo.backend");
+    }
+
     @GetMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> getRequest() {
+    public CompletableFuture<ResponseEntity<?>> getRequest() {
         return proxyRequest(HttpMethod.GET, null);
     }
 
     @PostMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> postRequest(@RequestBody(required = false) Map<String, Object> payload) {
+    public CompletableFuture<ResponseEntity<?>> postRequest(@RequestBody(required = false) Map<String, Object> payload) {
         return proxyRequest(HttpMethod.POST, payload);
     }
 
     @PutMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> putRequest(@RequestBody(required = false) Map<String, Object> payload) {
+    public CompletableFuture<ResponseEntity<?>> putRequest(@RequestBody(required = false) Map<String, Object> payload) {
         return proxyRequest(HttpMethod.PUT, payload);
     }
 
     @DeleteMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> deleteRequest() {
+    public CompletableFuture<ResponseEntity<?>> deleteRequest() {
         return proxyRequest(HttpMethod.DELETE, null);
     }
 
+    /**
+     * Proxies a batch of operations, [{"method": "GET", "payload": {...}}, ...], in one round trip.
+     *
+     * Every item goes through proxyRequest, so with upstream.async.enabled=true the items'
+     * route calls run concurrently on the upstream-proxy pool; in sync mode they run one
+     * after the other on the request thread. Results come back in request order as
+     * {"index", "status", "body"}; a failed item does not fail the batch.
+     *
+     * Tracing: a "proxy-batch" span (batch.size) is the parent of one
+     * "proxy-batch-item" span per item (batch.index, http.method), which in turn
+     * parents that item's Camel route spans.
+     */
+    @PostMapping("/frontend_to_backend/batch")
+    public CompletableFuture<ResponseEntity<?>> batchRequest(@RequestBody List<Map<String, Object>> items) {
+        if (items.size() > batchMaxItems) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("service", "backend-camel");
+            errorResponse.put("error", "Batch too large");
+            errorResponse.put("maxItems", batchMaxItems);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(errorResponse));
+        }
+
+        Span batchSpan = tracer.spanBuilder("proxy-batch")
+                .setAttribute("batch.size", items.size())
+                .startSpan();
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(items.size());
+        try (Scope ignored = batchSpan.makeCurrent()) {
+            for (int i = 0; i < items.size(); i++) {
+                futures.add(proxyBatchItem(i, items.get(i)));
+            }
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .handle((done, error) -> {
+                    List<Map<String, Object>> results = new ArrayList<>(futures.size());
+                    int failed = 0;
+                    for (CompletableFuture<Map<String, Object>> future : futures) {
+                        Map<String, Object> result = future.join();
+                        if ((int) result.get("status") >= 400) {
+                            failed++;
+                        }
+                        results.add(result);
+                    }
+                    batchSpan.setAttribute("batch.failed", failed);
+                    batchSpan.end();
+
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("service", "backend-camel");
+                    response.put("results", results);
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    private CompletableFuture<Map<String, Object>> proxyBatchItem(int index, Map<String, Object> item) {
+        // A null element of the JSON array is an invalid item, like a missing method
+        Object method = item != null ? item.get("method") : null;
+        Object payload = item != null ? item.get("payload") : null;
+
+        Span itemSpan = tracer.spanBuilder("proxy-batch-item")
+                .setAttribute("batch.index", index)
+                .setAttribute("http.method", String.valueOf(method))
+                .startSpan();
+        Map<String, Object> result = new HashMap<>();
+        result.put("index", index);
+
+        HttpMethod httpMethod = method instanceof String ? HttpMethod.resolve(((String) method).toUpperCase()) : null;
+        if (httpMethod == null || (payload != null && !(payload instanceof Map))) {
+            itemSpan.setStatus(StatusCode.ERROR, "Invalid batch item");
+            itemSpan.end();
+            Map<String, Object> errorBody = new HashMap<>();
+            errorBody.put("service", "backend-camel");
+            errorBody.put("error", "Invalid batch item: method must be an HTTP method and payload an object");
+            result.put("status", HttpStatus.BAD_REQUEST.value());
+            result.put("body", errorBody);
+            return CompletableFuture.completedFuture(result);
+        }
+
+        // proxyRequest records its events and status on the current span - the item span -
+        // and the async route call inherits it as parent
+        CompletableFuture<ResponseEntity<?>> response;
+        try (Scope ignored = itemSpan.makeCurrent()) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> itemPayload = (Map<String, Object>) payload;
+            response = proxyRequest(httpMethod, itemPayload);
+        }
+        return response.handle((entity, error) -> {
+            itemSpan.end();
+            if (error != null) {
+                return errorResult(result, error);
+            }
+            Object body = entity.getBody();
+            result.put("status", entity.getStatusCodeValue());
+            // Passthrough bodies are raw upstream JSON bytes; embed them without parsing
+            result.put("body", body instanceof byte[]
+                    ? new RawValue(new String((byte[]) body, StandardCharsets.UTF_8))
+                    : body);
+            return result;
+        });
+    }
+
+    private static Map<String, Object> errorResult(Map<String, Object> result, Throwable error) {
+        Map<String, Object> errorBody = new HashMap<>();
+        errorBody.put("service", "backend-camel");
+        errorBody.put("error", "Failed to connect to upstream service");
+        errorBody.put("message", error.getMessage());
+        result.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        result.put("body", errorBody);
+        return result;
+    }
+
     /**
      * Proxies requests to the upstream service using Apache Camel with OpenTelemetry instrumentation.
      *
@@ -79,21 +236,39 @@ public class BackendController {
      *
      * Note: This method also demonstrates manual span manipulation using Span.current()
      * for adding custom events and attributes beyond what Camel automatically provides.
+     *
+     * With upstream.async.enabled=true (the default) the route is invoked with
+     * asyncRequestBodyAndHeaders and the CompletableFuture is returned to Spring MVC, so
+     * the servlet thread is free while camel-http waits on the upstream. The span is
+     * captured here and completed from the callback on the Camel pool thread.
      */
     @WithSpan("proxy-request")
-    private ResponseEntity<Map<String, Object>> proxyRequest(
+    private CompletableFuture<ResponseEntity<?>> proxyRequest(
             @SpanAttribute("http.method") HttpMethod method,
-            @SpanAttribute("request.payload") Map<String, Object> payload) {
+            Map<String, Object> payload) {
 
         // Get the current span for manual instrumentation
         Span currentSpan = Span.current();
 
-        try {
-            // Add a custom attribute to the current span
-            currentSpan.setAttribute("camel.route", "direct:proxyRequest");
+        // Record a size-capped view of the payload rather than the whole Map
+        payloadCapture.record(currentSpan, payload);
+
+        // Shed load before doing any route work once the adaptive limit is reached
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(currentSpan);
+        if (permit == null) {
+            PROXY_SPANS.rejected(currentSpan);
+
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("service", "backend-camel");
+            errorResponse.put("error", "Concurrency limit reached");
+            errorResponse.put("limit", concurrencyLimiter.getLimit());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse));
+        }
 
-            // Add an event to mark the start of the Camel route call
-            currentSpan.addEvent("starting-camel-route");
+        try {
+            // Record camel.route and a "starting-camel-route" event on the current span.
+            // ProxySpanRecorder skips all span work when the span is not sampled
+            PROXY_SPANS.started(currentSpan);
 
             // Prepare headers for Camel route
             Map<String, Object> headers = new HashMap<>();
@@ -104,50 +279,104 @@ public class BackendController {
             // The route will:
             // 1. Receive the message at direct:proxyRequest
             // 2. Route it to the HTTP endpoint
-            // 3. Return the upstream response as JSON string
+            // 3. Return the upstream response as a String, Map or byte[] (see UpstreamResponseMode)
             // All of this is automatically traced by camel-opentelemetry
-            String responseJson = producerTemplate.requestBodyAndHeaders(
-                "direct:proxyRequest",
-                payload,
-                headers,
-                String.class
-            );
-
-            // Parse the JSON string response
-            @SuppressWarnings("unchecked")
-            Map<String, Object> upstreamResponse = objectMapper.readValue(responseJson, Map.class);
+            //
+            // In async mode the route runs on the CamelAsyncConfig pool and this thread
+            // returns to Tomcat; Spring MVC writes the response when the future completes.
+            //
+            // Identical concurrent requests share one exchange (see SingleFlight), and the
+            // exchange runs inside the circuit breaker and bulkhead (see UpstreamResilience)
+            CompletableFuture<Object> reply = singleFlight.execute(method, "direct:proxyRequest", payload, currentSpan,
+                    () -> upstreamResilience.callAsync(currentSpan, () -> {
+                        // Only the request that sends the exchange feeds the adaptive limit
+                        permit.markUpstreamCall();
+                        return asyncEnabled
+                                ? producerTemplate.asyncRequestBodyAndHeaders("direct:proxyRequest", payload, headers)
+                                : CompletableFuture.completedFuture(producerTemplate.requestBodyAndHeaders("direct:proxyRequest", payload, headers));
+                    }));
 
-            // Add an event to mark successful completion
-            currentSpan.addEvent("camel-route-completed");
+            return reply.handle((upstreamBody, error) -> {
+                // The round-trip time of a successful reply feeds the adaptive limit;
+                // upstream I/O errors and 5xx shrink it
+                if (error == null) {
+                    permit.onSuccess();
+                } else if (isUpstreamFailure(error)) {
+                    permit.onDropped();
+                } else {
+                    permit.onIgnore();
+                }
+                return error == null
+                        ? toResponse(method, upstreamBody, currentSpan)
+                        : errorResponse(error, currentSpan);
+            });
+        } catch (Exception e) {
+            permit.onIgnore();
+            return CompletableFuture.completedFuture(errorResponse(e, currentSpan));
+        }
+    }
+
+    private ResponseEntity<?> toResponse(HttpMethod method, Object upstreamBody, Span currentSpan) {
+        try {
+            // "camel-route-completed" event and status OK
+            PROXY_SPANS.completed(currentSpan);
 
-            // Set the span status to OK
-            currentSpan.setStatus(StatusCode.OK);
+            if (responseMode == UpstreamResponseMode.PASSTHROUGH) {
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(wrapRaw(method, (byte[]) upstreamBody));
+            }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("service", "backend-camel");
-            response.put("method", method.name());
-            response.put("upstream", upstreamResponse);
+            UpstreamResponse upstream = responseMode == UpstreamResponseMode.TYPED
+                    ? (UpstreamResponse) upstreamBody
+                    : objectMapper.readValue((String) upstreamBody, UpstreamResponse.class);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new ProxyResponse("backend-camel", method.name(), upstream));
         } catch (Exception e) {
-            // Log the full exception for debugging
-            e.printStackTrace();
+            return errorResponse(e, currentSpan);
+        }
+    }
 
-            // Record the exception in the span
-            currentSpan.recordException(e);
+    private ResponseEntity<?> errorResponse(Throwable error, Span currentSpan) {
+        // Failures of the async reply arrive wrapped in a CompletionException
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
 
-            // Set the span status to ERROR with a description
-            currentSpan.setStatus(StatusCode.ERROR, "Camel route failed to connect to upstream service");
+        // Log the full exception for debugging
+        e.printStackTrace();
 
-            // Add an error event with details
-            currentSpan.addEvent("camel-route-failed");
+        // Record the exception, status ERROR and a "camel-route-failed" event
+        PROXY_SPANS.failed(currentSpan, e);
 
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("service", "backend-camel");
-            errorResponse.put("error", "Failed to connect to upstream service");
-            errorResponse.put("message", e.getMessage());
-            errorResponse.put("exceptionType", e.getClass().getName());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse("backend-camel", "Failed to connect to upstream service",
+                        e.getMessage(), e.getClass().getName()));
+    }
+
+    private static boolean isUpstreamFailure(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof HttpOperationFailedException) {
+                return ((HttpOperationFailedException) e).getStatusCode() >= 500;
+            }
+            if (e instanceof IOException) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    /**
+     * Builds {"service":"backend-camel","method":"GET","upstream":<upstream body>} by copying
+     * the upstream bytes between a fixed prefix and suffix, without parsing them.
+     */
+    private static byte[] wrapRaw(HttpMethod method, byte[] upstreamJson) {
+        byte[] prefix = ("{\"service\":\"backend-camel\",\"method\":\"" + method.name() + "\",\"upstream\":")
+                .getBytes(StandardCharsets.UTF_8);
+        boolean empty = upstreamJson == null || upstreamJson.length == 0;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(prefix.length + (empty ? 4 : upstreamJson.length) + 1);
+        out.writeBytes(prefix);
+        out.writeBytes(empty ? NULL_JSON : upstreamJson);
+        out.write('}');
+        return out.toByteArray();
     }
 }
@@ -0,0 +1,57 @@
+package com.demo.backend;
+
+import io.opentelemetry.context.Context;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.ThreadPoolProfileBuilder;
+import org.apache.camel.spi.ThreadPoolProfile;
+import org.apache.camel.util.concurrent.ThreadPoolRejectedPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Thread pool and ProducerTemplate for asynchronous Camel request/reply
+ * (upstream.async.enabled=true).
+ *
+ * BackendController sends to direct:proxyRequest with asyncRequestBodyAndHeaders, which
+ * runs the route on this pool and returns a CompletableFuture to Spring MVC. The servlet
+ * thread is released while camel-http waits on the upstream; camel-http itself is still
+ * blocking, so upstream.async.pool-size caps the in-flight upstream calls.
+ *
+ * CRITICAL FOR OPENTELEMETRY CONTEXT PROPAGATION:
+ *
+ * The Spring Boot Starter does not instrument executors, and camel-opentelemetry parents
+ * the route span on Context.current() of the thread running the route. The executor is
+ * therefore wrapped with Context.taskWrapping, which captures the caller's context when
+ * the route is submitted and makes it current on the pool thread.
+ */
+@Configuration
+public class CamelAsyncConfig {
+
+    @Bean
+    public ExecutorService upstreamProxyExecutor(
+            CamelContext camelContext,
+            @Value("${upstream.async.pool-size:200}") int poolSize,
+            @Value("${upstream.async.queue-size:1000}") int queueSize) {
+
+        ThreadPoolProfile profile = new ThreadPoolProfileBuilder("upstream-proxy")
+                .poolSize(poolSize)
+                .maxPoolSize(poolSize)
+                .maxQueueSize(queueSize)
+                .rejectedPolicy(ThreadPoolRejectedPolicy.Abort)
+                .build();
+
+        // Managed by Camel: shut down with the CamelContext
+        return camelContext.getExecutorServiceManager().newThreadPool(this, "upstream-proxy", profile);
+    }
+
+    @Bean
+    public ProducerTemplate producerTemplate(CamelContext camelContext, ExecutorService upstreamProxyExecutor) {
+        ProducerTemplate producerTemplate = camelContext.createProducerTemplate();
+        producerTemplate.setExecutorService(Context.taskWrapping(upstreamProxyExecutor));
+        return producerTemplate;
+    }
+}
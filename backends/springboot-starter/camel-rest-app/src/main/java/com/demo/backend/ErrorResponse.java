@@ -0,0 +1,12 @@
+package com.demo.backend;
+
+/**
+ * /api/frontend_to_backend response when the Camel route failed:
+ * {"service", "error", "message", "exceptionType"}.
+ */
+public record ErrorResponse(
+        String service,
+        String error,
+        String message,
+        String exceptionType) {
+}
@@ -0,0 +1,9 @@
+package com.demo.backend;
+
+/**
+ * Summary the upstream returns instead of echoing the payload when the request carries
+ * Prefer: return=minimal (upstream.payload-digest.enabled=true): size in bytes and SHA-256
+ * of the payload as compact JSON, and its number of top-level keys.
+ */
+public record PayloadDigest(long size, int keys, String sha256) {
+}
@@ -0,0 +1,11 @@
+package com.demo.backend;
+
+/**
+ * Successful /api/frontend_to_backend response in the typed and buffered response modes:
+ * {"service", "method", "upstream"}. Passthrough mode splices the raw upstream bytes instead.
+ */
+public record ProxyResponse(
+        String service,
+        String method,
+        UpstreamResponse upstream) {
+}
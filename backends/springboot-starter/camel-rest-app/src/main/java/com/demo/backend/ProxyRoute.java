@@ -1,6 +1,12 @@
 package com.demo.backend;
 
+import org.apache.camel.Exchange;
+import org.apache.camel.Message;
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.component.jackson.JacksonDataFormat;
+import org.apache.camel.http.base.HttpOperationFailedException;
+import org.apache.camel.model.ProcessorDefinition;
+import org.apache.camel.model.dataformat.JsonLibrary;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -24,39 +30,113 @@ public class ProxyRoute extends RouteBuilder {
     @Value("${upstream.service.url}")
     private String upstreamUrl;
 
+    @Value("${upstream.response.mode:typed}")
+    private UpstreamResponseMode responseMode;
+
+    @Value("${upstream.wire-format:json}")
+    private WireFormat wireFormat;
+
+    @Value("${upstream.payload-digest.enabled:false}")
+    private boolean payloadDigest;
+
     @Override
     public void configure() throws Exception {
+        // Binary formats must be decoded by the route; BUFFERED and PASSTHROUGH hand the
+        // controller the raw body as JSON text
+        if (wireFormat != WireFormat.JSON && responseMode != UpstreamResponseMode.TYPED) {
+            throw new IllegalStateException("upstream.wire-format=" + wireFormat.name().toLowerCase()
+                    + " requires upstream.response.mode=typed");
+        }
+        JacksonDataFormat binaryFormat = new JacksonDataFormat(wireFormat.objectMapper(), UpstreamResponse.class);
+        // Content-Type is set explicitly below
+        binaryFormat.setContentTypeHeader(false);
+
         /**
          * Direct endpoint "proxyRequest" - receives requests from BackendController
          *
          * Flow:
          * 1. Receives message with headers: HTTP_METHOD, PAYLOAD
          * 2. Routes to HTTP endpoint using dynamic URI
-         * 3. Returns upstream response as JSON
+         * 3. Returns upstream response in the form selected by upstream.response.mode
          *
          * The direct: endpoint is synchronous and in-memory, perfect for
          * request/response patterns where the controller needs a reply.
          */
-        from("direct:proxyRequest")
+        ProcessorDefinition<?> route = from("direct:proxyRequest")
             .routeId("proxy-to-upstream")
             .log("Camel route processing ${header.HTTP_METHOD} request")
 
             // Set the HTTP method dynamically based on header
             .setHeader("CamelHttpMethod", simple("${header.HTTP_METHOD}"))
 
-            // Set Content-Type for requests with body
-            .setHeader("Content-Type", constant("application/json"))
+            // Set Content-Type for requests with body, and the format wanted back (see WireFormat)
+            .setHeader("Content-Type", constant(wireFormat.mediaType()))
+            .setHeader("Accept", constant(wireFormat.mediaType()));
+
+        // Ask for a digest of the payload instead of the payload echoed back
+        if (payloadDigest) {
+            route.setHeader("Prefer", constant("return=minimal"));
+        }
 
+        // camel-http sends the body as a stream; a Map payload must be serialized first
+        if (wireFormat == WireFormat.JSON) {
+            route.choice()
+                .when(body().isNotNull())
+                    .marshal().json(JsonLibrary.Jackson)
+            .end();
+        } else {
+            route.choice()
+                .when(body().isNotNull())
+                    .marshal(binaryFormat)
+            .end();
+        }
+
+        route
             // Route to HTTP endpoint - Camel will automatically:
             // - Make the HTTP call
             // - Propagate trace context via W3C headers
             // - Create a client span
             // - Handle request/response serialization
-            .to(upstreamUrl + "/api/backend_to_upstream?bridgeEndpoint=true&throwExceptionOnFailure=false")
+            // - Negotiate and inflate compressed responses (see UpstreamHttpClientConfigurer)
+            .to(upstreamUrl + "/api/backend_to_upstream?bridgeEndpoint=true&throwExceptionOnFailure=false"
+                    + "&httpClientConfigurer=#upstreamHttpClientConfigurer")
 
             .log("Camel route completed with status: ${header.CamelHttpResponseCode}")
 
-            // Convert body to String for debugging
-            .convertBodyTo(String.class);
+            // 4xx replies pass through to the controller, but a 5xx fails the exchange
+            .process(this::failOnServerError);
+
+        // Hand the response body to the controller with as few JSON passes as the mode allows
+        switch (responseMode) {
+            case TYPED:
+                if (wireFormat == WireFormat.JSON) {
+                    route.unmarshal().json(JsonLibrary.Jackson, UpstreamResponse.class);
+                } else {
+                    route.unmarshal(binaryFormat);
+                }
+                break;
+            case PASSTHROUGH:
+                route.convertBodyTo(byte[].class);
+                break;
+            default:
+                route.convertBodyTo(String.class);
+        }
+    }
+
+    /**
+     * The endpoint uses throwExceptionOnFailure=false so that 4xx replies still reach the
+     * client, which would also turn every upstream 5xx into a normal reply. A 5xx is
+     * rethrown here as HttpOperationFailedException, so the circuit breaker
+     * (UpstreamResilience) and the adaptive limit (BackendController.isUpstreamFailure)
+     * see the upstream failing.
+     */
+    private void failOnServerError(Exchange exchange) throws HttpOperationFailedException {
+        Message message = exchange.getMessage();
+        Integer status = message.getHeader(Exchange.HTTP_RESPONSE_CODE, Integer.class);
+        if (status != null && status >= 500) {
+            throw new HttpOperationFailedException(upstreamUrl + "/api/backend_to_upstream", status,
+                    message.getHeader(Exchange.HTTP_RESPONSE_TEXT, String.class), null, null,
+                    message.getBody(String.class));
+        }
     }
 }
@@ -0,0 +1,71 @@
+package com.demo.backend;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+
+/**
+ * The attributes, events and status BackendController.proxyRequest records on its span.
+ *
+ * This runs on every proxied request, so nothing here allocates on a span that is not
+ * recording (not sampled): each method returns before touching the span. The attribute
+ * key and the camel.route attribute itself are built once at startup. The String
+ * overloads of Span.setAttribute create an AttributeKey on every call, even on a
+ * non-recording span.
+ *
+ * SpanRecordingBenchmark (benchmarks module) measures both paths with -prof gc.
+ */
+public final class ProxySpanRecorder {
+
+    private static final AttributeKey<String> CAMEL_ROUTE = AttributeKey.stringKey("camel.route");
+
+    private static final String LIMIT_REACHED = "Concurrency limit reached";
+    private static final String ROUTE_FAILED = "Camel route failed to connect to upstream service";
+
+    private final Attributes targetAttributes;
+
+    /**
+     * @param route the endpoint proxied requests are sent to (direct:proxyRequest)
+     */
+    public ProxySpanRecorder(String route) {
+        this.targetAttributes = Attributes.of(CAMEL_ROUTE, route);
+    }
+
+    /** Request shed by the adaptive concurrency limit before any route work. */
+    public void rejected(Span span) {
+        if (span.isRecording()) {
+            span.setStatus(StatusCode.ERROR, LIMIT_REACHED);
+        }
+    }
+
+    /** Camel route about to be called. */
+    public void started(Span span) {
+        if (!span.isRecording()) {
+            return;
+        }
+        span.setAllAttributes(targetAttributes);
+        // Events are timestamped annotations that help track the request lifecycle
+        span.addEvent("starting-camel-route");
+    }
+
+    /** Route replied successfully. */
+    public void completed(Span span) {
+        if (!span.isRecording()) {
+            return;
+        }
+        span.addEvent("camel-route-completed");
+        span.setStatus(StatusCode.OK);
+    }
+
+    /** Route failed; the exception is recorded with the error status and event. */
+    public void failed(Span span, Throwable error) {
+        if (!span.isRecording()) {
+            return;
+        }
+        span.recordException(error);
+        // Makes errors highly visible in Honeycomb's trace view
+        span.setStatus(StatusCode.ERROR, ROUTE_FAILED);
+        span.addEvent("camel-route-failed");
+    }
+}
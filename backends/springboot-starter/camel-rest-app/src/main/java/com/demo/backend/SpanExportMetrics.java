@@ -0,0 +1,210 @@
+package com.demo.backend;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.autoconfigure.spi.ConfigProperties;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.metrics.Aggregation;
+import io.opentelemetry.sdk.metrics.InstrumentType;
+import io.opentelemetry.sdk.metrics.data.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.export.CollectionRegistration;
+import io.opentelemetry.sdk.metrics.export.MetricReader;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Puts the BatchSpanProcessor's saturation on /actuator/metrics
+ * (tracing.export-metrics.enabled, on by default).
+ *
+ * Spans wait in the processor's queue (otel.bsp.max.queue.size) until the worker thread
+ * exports them; a span that ends while the queue is full is dropped without a log line.
+ * The processor counts this itself, but only on the OpenTelemetry meter provider:
+ * queueSize (gauge) and processedSpans{dropped} (counter) of the io.opentelemetry.sdk.trace
+ * scope. This class is registered as an extra MetricReader on that provider and reads just
+ * those two metrics back for Micrometer, so they are visible even with
+ * OTEL_METRICS_EXPORTER=none. Only counters and observable gauges are aggregated for this
+ * reader; histograms and other instruments use the drop aggregation.
+ *
+ * Export latency is not measured by the SDK, so timed() wraps the span exporter and times
+ * each export until its CompletableResultCode completes (the OTLP exporters complete
+ * asynchronously, when the backend has answered or the request failed).
+ *
+ * Meters:
+ * - otel.bsp.queue.size / otel.bsp.queue.capacity - spans waiting, and the queue limit
+ * - otel.bsp.spans{outcome=exported|dropped} - spans taken from the queue for export, and
+ *   spans dropped because the queue was full
+ * - otel.bsp.export - export calls and their total time
+ * - otel.bsp.export.failures - exports that failed or threw
+ */
+public class SpanExportMetrics implements MetricReader, MeterBinder {
+
+    private static final String SDK_TRACE_SCOPE = "io.opentelemetry.sdk.trace";
+    private static final AttributeKey<Boolean> DROPPED = AttributeKey.booleanKey("dropped");
+    // Meters are read one at a time; one collection serves a whole scrape
+    private static final long SNAPSHOT_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int DEFAULT_MAX_QUEUE_SIZE = 2048;
+
+    private final LongAdder exports = new LongAdder();
+    private final LongAdder exportNanos = new LongAdder();
+    private final LongAdder exportFailures = new LongAdder();
+
+    private volatile CollectionRegistration registration = CollectionRegistration.noop();
+    private volatile int queueCapacity = DEFAULT_MAX_QUEUE_SIZE;
+    private Snapshot snapshot = new Snapshot(0, 0, 0);
+    private long collectedAtNanos = System.nanoTime() - SNAPSHOT_TTL_NANOS;
+
+    private record Snapshot(long queueSize, long exportedSpans, long droppedSpans) {
+    }
+
+    /**
+     * Wraps the configured exporter (before any other exporter customizer) to time exports.
+     */
+    public SpanExporter timed(SpanExporter exporter, ConfigProperties config) {
+        queueCapacity = config.getInt("otel.bsp.max.queue.size", DEFAULT_MAX_QUEUE_SIZE);
+        return new TimedSpanExporter(exporter);
+    }
+
+    private class TimedSpanExporter implements SpanExporter {
+
+        private final SpanExporter delegate;
+
+        TimedSpanExporter(SpanExporter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            long start = System.nanoTime();
+            CompletableResultCode result;
+            try {
+                result = delegate.export(spans);
+            } catch (RuntimeException e) {
+                record(start, false);
+                throw e;
+            }
+            result.whenComplete(() -> record(start, result.isSuccess()));
+            return result;
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return delegate.flush();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return delegate.shutdown();
+        }
+
+        @Override
+        public String toString() {
+            return "TimedSpanExporter{" + delegate + "}";
+        }
+    }
+
+    private void record(long startNanos, boolean success) {
+        exports.increment();
+        exportNanos.add(System.nanoTime() - startNanos);
+        if (!success) {
+            exportFailures.increment();
+        }
+    }
+
+    // MetricReader
+
+    @Override
+    public void register(CollectionRegistration registration) {
+        this.registration = registration;
+    }
+
+    @Override
+    public AggregationTemporality getAggregationTemporality(InstrumentType instrumentType) {
+        return AggregationTemporality.CUMULATIVE;
+    }
+
+    @Override
+    public Aggregation getDefaultAggregation(InstrumentType instrumentType) {
+        return instrumentType == InstrumentType.COUNTER || instrumentType == InstrumentType.OBSERVABLE_GAUGE
+                ? Aggregation.defaultAggregation()
+                : Aggregation.drop();
+    }
+
+    @Override
+    public CompletableResultCode forceFlush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        registration = CollectionRegistration.noop();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private synchronized Snapshot snapshot() {
+        long now = System.nanoTime();
+        if (now - collectedAtNanos < SNAPSHOT_TTL_NANOS) {
+            return snapshot;
+        }
+        long queueSize = 0;
+        long exported = 0;
+        long dropped = 0;
+        for (MetricData metric : registration.collectAllMetrics()) {
+            if (!SDK_TRACE_SCOPE.equals(metric.getInstrumentationScopeInfo().getName())) {
+                continue;
+            }
+            if (metric.getName().equals("queueSize")) {
+                for (LongPointData point : metric.getLongGaugeData().getPoints()) {
+                    queueSize += point.getValue();
+                }
+            } else if (metric.getName().equals("processedSpans")) {
+                for (LongPointData point : metric.getLongSumData().getPoints()) {
+                    if (Boolean.TRUE.equals(point.getAttributes().get(DROPPED))) {
+                        dropped += point.getValue();
+                    } else {
+                        exported += point.getValue();
+                    }
+                }
+            }
+        }
+        snapshot = new Snapshot(queueSize, exported, dropped);
+        collectedAtNanos = now;
+        return snapshot;
+    }
+
+    // MeterBinder
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("otel.bsp.queue.size", this, metrics -> metrics.snapshot().queueSize())
+                .description("Spans waiting in the BatchSpanProcessor queue")
+                .register(registry);
+        Gauge.builder("otel.bsp.queue.capacity", this, metrics -> metrics.queueCapacity)
+                .description("Largest number of spans the BatchSpanProcessor queue holds (otel.bsp.max.queue.size)")
+                .register(registry);
+        FunctionCounter.builder("otel.bsp.spans", this, metrics -> metrics.snapshot().exportedSpans())
+                .description("Spans handled by the BatchSpanProcessor")
+                .tag("outcome", "exported")
+                .register(registry);
+        FunctionCounter.builder("otel.bsp.spans", this, metrics -> metrics.snapshot().droppedSpans())
+                .description("Spans handled by the BatchSpanProcessor")
+                .tag("outcome", "dropped")
+                .register(registry);
+        FunctionTimer.builder("otel.bsp.export", this,
+                        metrics -> metrics.exports.sum(), metrics -> metrics.exportNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Span export calls, until the exporter reports the result")
+                .register(registry);
+        FunctionCounter.builder("otel.bsp.export.failures", exportFailures, LongAdder::sum)
+                .description("Span exports that failed")
+                .register(registry);
+    }
+}
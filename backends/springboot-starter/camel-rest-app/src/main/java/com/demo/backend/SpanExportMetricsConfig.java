@@ -0,0 +1,43 @@
+package com.demo.backend;
+
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizer;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires SpanExportMetrics into the OpenTelemetry SDK (tracing.export-metrics.enabled).
+ *
+ * The reader is registered on the SDK meter provider, which the starter hands to the
+ * BatchSpanProcessor, and the exporter is wrapped for timing. The BatchSpanProcessor
+ * itself is configured by the otel.bsp.* properties in application.properties.
+ *
+ * The customizer runs before the others (order()), so the timer wraps the network
+ * exporter directly, inside TailSamplingSpanExporter when tail sampling is on.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracing.export-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class SpanExportMetricsConfig {
+
+    @Bean
+    public SpanExportMetrics spanExportMetrics() {
+        return new SpanExportMetrics();
+    }
+
+    @Bean
+    public AutoConfigurationCustomizerProvider spanExportMetricsCustomizer(SpanExportMetrics spanExportMetrics) {
+        return new AutoConfigurationCustomizerProvider() {
+            @Override
+            public void customize(AutoConfigurationCustomizer customizer) {
+                customizer.addMeterProviderCustomizer((builder, config) -> builder.registerMetricReader(spanExportMetrics));
+                customizer.addSpanExporterCustomizer(spanExportMetrics::timed);
+            }
+
+            @Override
+            public int order() {
+                return Integer.MIN_VALUE;
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.backend;
+
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Wires TailSamplingSpanExporter into the OpenTelemetry SDK (tracing.tail-sampling.enabled=true).
+ *
+ * The Spring Boot Starter applies AutoConfigurationCustomizerProvider beans while it
+ * builds the SDK. The span exporter customizer wraps each configured exporter (OTLP by
+ * default), so the BatchSpanProcessor still batches every ended span but only the kept
+ * traces reach the network. Head sampling is unchanged, so every span is still recorded.
+ *
+ * The Stats bean is a MeterBinder, which Spring Boot binds to the actuator registry. It
+ * is kept apart from the exporter so the SDK does not depend on the MeterRegistry.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracing.tail-sampling.enabled", havingValue = "true")
+public class TailSamplingConfig {
+
+    @Bean
+    public TailSamplingSpanExporter.Stats tailSamplingStats() {
+        return new TailSamplingSpanExporter.Stats();
+    }
+
+    @Bean
+    public AutoConfigurationCustomizerProvider tailSamplingCustomizer(
+            TailSamplingSpanExporter.Stats tailSamplingStats,
+            @Value("${tracing.tail-sampling.slow-threshold:1s}") Duration slowThreshold,
+            @Value("${tracing.tail-sampling.success-ratio:0.1}") double successRatio,
+            @Value("${tracing.tail-sampling.max-traces:5000}") int maxTraces,
+            @Value("${tracing.tail-sampling.max-spans:20000}") int maxSpans,
+            @Value("${tracing.tail-sampling.decision-wait:10s}") Duration decisionWait) {
+        return customizer -> customizer.addSpanExporterCustomizer((exporter, config) ->
+                new TailSamplingSpanExporter(exporter, tailSamplingStats, slowThreshold, successRatio,
+                        maxTraces, maxSpans, decisionWait));
+    }
+}
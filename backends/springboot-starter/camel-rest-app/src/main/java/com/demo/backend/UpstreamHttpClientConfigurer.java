@@ -0,0 +1,61 @@
+package com.demo.backend;
+
+import org.apache.camel.component.http.HttpClientConfigurer;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Compression settings for the camel-http client of the proxy route
+ * (httpClientConfigurer=#upstreamHttpClientConfigurer in ProxyRoute).
+ *
+ * - responses: camel-http's Apache HttpClient sends Accept-Encoding: gzip,deflate and
+ *   inflates compressed responses before the route reads the body
+ *   (upstream.client.compression.enabled, on by default)
+ * - requests: with upstream.client.request-compression.enabled, bodies of a known length
+ *   of at least request-compression.min-size are sent gzipped (Content-Encoding: gzip).
+ *   Only enable it for upstreams that decompress requests, like ours
+ *   (RequestDecompressionFilter).
+ */
+@Component("upstreamHttpClientConfigurer")
+public class UpstreamHttpClientConfigurer implements HttpClientConfigurer {
+
+    private final boolean compression;
+    private final boolean requestCompression;
+    private final long requestCompressionMinSize;
+
+    public UpstreamHttpClientConfigurer(
+            @Value("${upstream.client.compression.enabled:true}") boolean compression,
+            @Value("${upstream.client.request-compression.enabled:false}") boolean requestCompression,
+            @Value("${upstream.client.request-compression.min-size:2KB}") DataSize requestCompressionMinSize) {
+        this.compression = compression;
+        this.requestCompression = requestCompression;
+        this.requestCompressionMinSize = requestCompressionMinSize.toBytes();
+    }
+
+    @Override
+    public void configureHttpClient(HttpClientBuilder builder) {
+        if (!compression) {
+            builder.disableContentCompression();
+        }
+        if (requestCompression) {
+            // First, so RequestContent derives the framing and Content-Encoding headers from the gzipped entity
+            builder.addInterceptorFirst((HttpRequestInterceptor) (request, context) -> {
+                if (!(request instanceof HttpEntityEnclosingRequest)) {
+                    return;
+                }
+                HttpEntityEnclosingRequest enclosing = (HttpEntityEnclosingRequest) request;
+                HttpEntity entity = enclosing.getEntity();
+                if (entity != null && entity.getContentEncoding() == null
+                        && entity.getContentLength() >= requestCompressionMinSize) {
+                    enclosing.setEntity(new GzipCompressingEntity(entity));
+                }
+            });
+        }
+    }
+}
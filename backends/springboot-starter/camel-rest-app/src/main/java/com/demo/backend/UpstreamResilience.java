@@ -0,0 +1,136 @@
+package com.demo.backend;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and bulkhead around the proxy route call (Resilience4j).
+ *
+ * A slow or failing upstream used to fill the upstream-proxy pool and its queue with
+ * exchanges waiting on the socket timeout. Now:
+ * - the bulkhead caps concurrent route calls; excess requests are rejected at once
+ *   instead of queueing for a pool thread
+ * - the circuit breaker opens when too many recent calls failed or were slow, and then
+ *   rejects calls without touching the network until wait-duration-in-open-state has
+ *   passed and a few trial calls succeed (HALF_OPEN)
+ *
+ * Rejected calls fail the returned future with CallNotPermittedException /
+ * BulkheadFullException, which BackendController turns into the usual 503.
+ *
+ * This wraps the ProducerTemplate call rather than using Camel's circuitBreaker EIP,
+ * which needs camel-resilience4j; the same Resilience4j instances and metric names are
+ * used as in the rest-app backend.
+ *
+ * Tracing:
+ * - "upstream-call-rejected" event (reason=circuit-open|bulkhead-full) on rejected requests
+ * - "circuit-breaker-state-transition" event (from, to) on the span of the request whose
+ *   outcome caused the transition
+ *
+ * Metrics: resilience4j.circuitbreaker.* and resilience4j.bulkhead.* (name=upstream),
+ * e.g. resilience4j.circuitbreaker.state and resilience4j.circuitbreaker.not.permitted.calls.
+ */
+@Component
+public class UpstreamResilience {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamResilience.class);
+
+    private static final AttributeKey<String> REJECT_REASON = AttributeKey.stringKey("reason");
+    private static final AttributeKey<String> FROM_STATE = AttributeKey.stringKey("from");
+    private static final AttributeKey<String> TO_STATE = AttributeKey.stringKey("to");
+
+    private final boolean enabled;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public UpstreamResilience(
+            MeterRegistry meterRegistry,
+            @Value("${upstream.resilience.enabled:true}") boolean enabled,
+            @Value("${upstream.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${upstream.circuit-breaker.slow-call-duration-threshold:2s}") Duration slowCallDurationThreshold,
+            @Value("${upstream.circuit-breaker.slow-call-rate-threshold:50}") float slowCallRateThreshold,
+            @Value("${upstream.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${upstream.circuit-breaker.minimum-number-of-calls:20}") int minimumNumberOfCalls,
+            @Value("${upstream.circuit-breaker.wait-duration-in-open-state:10s}") Duration waitDurationInOpenState,
+            @Value("${upstream.circuit-breaker.permitted-calls-in-half-open-state:5}") int permittedCallsInHalfOpenState,
+            @Value("${upstream.bulkhead.max-concurrent-calls:100}") int maxConcurrentCalls,
+            @Value("${upstream.bulkhead.max-wait:0ms}") Duration maxWait) {
+        this.enabled = enabled;
+
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDurationThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // A full bulkhead says nothing about upstream health. A 4xx never fails the
+                // route (ProxyRoute.failOnServerError raises only for 5xx), so it is a success
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build());
+
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("upstream");
+        this.bulkhead = bulkheadRegistry.bulkhead("upstream");
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            log.warn("Upstream circuit breaker {} -> {}", transition.getFromState(), transition.getToState());
+            // Published on the thread that recorded the triggering call
+            Span.current().addEvent("circuit-breaker-state-transition", Attributes.of(
+                    FROM_STATE, transition.getFromState().name(),
+                    TO_STATE, transition.getToState().name()));
+        });
+    }
+
+    /**
+     * Runs the asynchronous route call inside the bulkhead and circuit breaker. The
+     * bulkhead permit is held until the returned future completes.
+     * Rejections are recorded on the given span and fail the returned future.
+     */
+    public CompletableFuture<Object> callAsync(Span span, Supplier<CompletableFuture<Object>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        return CircuitBreaker.decorateCompletionStage(circuitBreaker,
+                        Bulkhead.decorateCompletionStage(bulkhead, call::get))
+                .get()
+                .toCompletableFuture()
+                .whenComplete((body, error) -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof CallNotPermittedException) {
+                        span.addEvent("upstream-call-rejected", Attributes.of(REJECT_REASON, "circuit-open"));
+                    } else if (cause instanceof BulkheadFullException) {
+                        span.addEvent("upstream-call-rejected", Attributes.of(REJECT_REASON, "bulkhead-full"));
+                    }
+                });
+    }
+}
@@ -0,0 +1,54 @@
+package com.demo.backend;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Encoding of request and response bodies on the backend-to-upstream hop
+ * (upstream.wire-format).
+ *
+ * JSON  - application/json, the default
+ * CBOR  - application/cbor (RFC 8949), via jackson-dataformat-cbor
+ * SMILE - application/x-jackson-smile, Jackson's binary JSON, via jackson-dataformat-smile
+ *
+ * The binary formats carry the same data model as JSON; they skip number and string
+ * escaping and are smaller on the wire, which matters most for large payloads. The
+ * upstream picks the format from Content-Type and Accept. ProxyRoute marshals and
+ * unmarshals them with a camel-jackson data format built on objectMapper().
+ */
+public enum WireFormat {
+    JSON("application/json"),
+    CBOR("application/cbor"),
+    SMILE("application/x-jackson-smile");
+
+    private final String mediaType;
+
+    WireFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * An ObjectMapper for this format; unknown upstream properties are ignored, as with
+     * Spring Boot's JSON mapper.
+     */
+    public ObjectMapper objectMapper() {
+        ObjectMapper mapper;
+        switch (this) {
+            case CBOR:
+                mapper = new CBORMapper();
+                break;
+            case SMILE:
+                mapper = new SmileMapper();
+                break;
+            default:
+                mapper = new ObjectMapper();
+        }
+        return mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+}
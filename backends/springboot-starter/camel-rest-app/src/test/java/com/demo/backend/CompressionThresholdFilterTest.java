@@ -0,0 +1,112 @@
+package com.demo.backend;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tomcat compresses the response, so these run against the embedded server: small bodies
+ * keep a Content-Length and stay plain, large ones are gzipped, and every flush of a
+ * streamed body reaches the client.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "otel.sdk.disabled=true",
+        "server.compression.enabled=true",
+        "server.compression.min-response-size=2KB"
+})
+@Import(CompressionThresholdFilterTest.TestResponses.class)
+class CompressionThresholdFilterTest {
+
+    private static final CountDownLatch FIRST_LINE_READ = new CountDownLatch(1);
+    private static volatile boolean firstLineSeenBeforeEnd;
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @RestController
+    static class TestResponses {
+
+        @GetMapping("/test/small")
+        Map<String, Object> small() {
+            return Map.of("message", "small");
+        }
+
+        @GetMapping("/test/large")
+        Map<String, Object> large() {
+            return Map.of("message", "x".repeat(4096));
+        }
+
+        // One short line, flushed; the second line waits until the client has read the first
+        @GetMapping(value = "/test/stream", produces = "application/x-ndjson")
+        StreamingResponseBody stream() {
+            return out -> {
+                out.write("{\"seq\":0}\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                try {
+                    firstLineSeenBeforeEnd = FIRST_LINE_READ.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                out.write("{\"seq\":1}\n".getBytes(StandardCharsets.UTF_8));
+            };
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+    }
+
+    private HttpResponse<byte[]> getGzipAccepted(String path) throws Exception {
+        return client.send(request(path).header("Accept-Encoding", "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    @Test
+    void smallResponseIsNotCompressedAndHasAContentLength() throws Exception {
+        HttpResponse<byte[]> response = getGzipAccepted("/test/small");
+
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(response.headers().firstValueAsLong("Content-Length")).hasValue(response.body().length);
+    }
+
+    @Test
+    void largeResponseIsCompressed() throws Exception {
+        HttpResponse<byte[]> response = getGzipAccepted("/test/large");
+
+        assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(response.body().length).isLessThan(4096);
+    }
+
+    @Test
+    void streamedFlushReachesTheClientBeforeTheThreshold() throws Exception {
+        HttpResponse<InputStream> response = client.send(request("/test/stream").build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            assertThat(lines.readLine()).isEqualTo("{\"seq\":0}");
+            FIRST_LINE_READ.countDown();
+            assertThat(lines.readLine()).isEqualTo("{\"seq\":1}");
+        }
+        assertThat(firstLineSeenBeforeEnd).isTrue();
+    }
+}
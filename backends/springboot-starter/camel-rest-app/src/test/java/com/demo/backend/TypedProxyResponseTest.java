@@ -0,0 +1,76 @@
+package com.demo.backend;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * In upstream.response.mode=typed the route unmarshals the upstream body into an
+ * UpstreamResponse, ignoring properties it does not know, and the controller answers
+ * with a ProxyResponse.
+ */
+@SpringBootTest(properties = {
+        "otel.sdk.disabled=true",
+        "upstream.response.mode=typed"
+})
+class TypedProxyResponseTest {
+
+    private static final HttpServer upstream = startUpstream();
+
+    @Autowired
+    private BackendController controller;
+
+    private static HttpServer startUpstream() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                byte[] body = ("{\"timestamp\":\"2026-01-01T00:00:00Z\",\"message\":\"ok\",\"service\":\"upstream\","
+                        + "\"receivedPayload\":{\"id\":1},\"addedLater\":true}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void upstreamUrl(DynamicPropertyRegistry registry) {
+        registry.add("upstream.service.url", () -> "http://localhost:" + upstream.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void answersWithTypedBodies() {
+        ResponseEntity<?> response = controller.postRequest(Map.of("id", 1)).join();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isInstanceOf(ProxyResponse.class);
+        ProxyResponse body = (ProxyResponse) response.getBody();
+        assertThat(body.method()).isEqualTo("POST");
+        assertThat(body.upstream().message()).isEqualTo("ok");
+        assertThat(body.upstream().receivedPayload()).containsEntry("id", 1);
+    }
+}
@@ -0,0 +1,97 @@
+package com.demo.backend;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * An upstream answering 503 must open the circuit breaker: the route fails the exchange
+ * on 5xx (ProxyRoute.failOnServerError) instead of passing the reply through.
+ */
+@SpringBootTest(properties = {
+        "otel.sdk.disabled=true",
+        "upstream.async.enabled=false",
+        "upstream.circuit-breaker.sliding-window-size=4",
+        "upstream.circuit-breaker.minimum-number-of-calls=4",
+        "upstream.circuit-breaker.wait-duration-in-open-state=1m"
+})
+class UpstreamCircuitBreakerTest {
+
+    private static final AtomicInteger upstreamCalls = new AtomicInteger();
+    private static final HttpServer upstream = startUpstream();
+
+    @Autowired
+    private BackendController controller;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static HttpServer startUpstream() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            // Only the proxied path is counted; the health probe also calls this server
+            server.createContext("/", exchange -> {
+                if (exchange.getRequestURI().getPath().equals("/api/backend_to_upstream")) {
+                    upstreamCalls.incrementAndGet();
+                }
+                byte[] body = "{\"error\":\"unavailable\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(503, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void upstreamUrl(DynamicPropertyRegistry registry) {
+        registry.add("upstream.service.url", () -> "http://localhost:" + upstream.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void opensOnUpstream503() {
+        for (int i = 0; i < 4; i++) {
+            ResponseEntity<?> response = controller.getRequest().join();
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        assertThat(upstreamCalls.get()).isEqualTo(4);
+        assertThat(circuitState("open")).isEqualTo(1.0);
+
+        // Open: rejected without reaching the upstream
+        ResponseEntity<?> rejected = controller.getRequest().join();
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(upstreamCalls.get()).isEqualTo(4);
+    }
+
+    private double circuitState(String state) {
+        return meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tag("name", "upstream")
+                .tag("state", state)
+                .gauge()
+                .value();
+    }
+}
@@ -0,0 +1,199 @@
+package com.demo.backend;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.LinkData;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Head sampler that holds the exported span rate near a fixed budget
+ * (tracing.adaptive-sampler.enabled=true).
+ *
+ * Without a sampler every request is traced, so span volume grows linearly with traffic.
+ * This sampler decides for local root spans only; AdaptiveSamplerConfig wraps it in
+ * Sampler.parentBased, so a sampled or unsampled flag in an incoming traceparent is
+ * honoured and child spans follow their root.
+ *
+ * - probability: roots are sampled by trace ID (like TraceIdRatioBased) with the current
+ *   probability. Every adjust-interval it is scaled by target / demanded span rate
+ *   (between x0.1 and x2 per step), so it falls quickly under a traffic spike and recovers
+ *   gradually. It never drops below MIN_RATIO.
+ * - rate limit: once target-spans-per-second * adjust-interval sampled spans have ended in
+ *   the current interval, further roots are dropped until the next one. This caps bursts
+ *   that arrive faster than the probability can adapt. The demanded rate counts the roots
+ *   the limit turned away, so the probability still comes down while the limit is hit.
+ *
+ * The span rate is measured by spanCounter(), a SpanProcessor that counts every sampled
+ * span as it ends, including spans of traces sampled by their remote parent.
+ *
+ * Exposure:
+ * - tracing.sampler.ratio gauge and tracing.sampler.decisions{decision=sampled|dropped|rate_limited}
+ *   counter on /actuator/metrics
+ * - sampler.ratio attribute on every root span it samples (the probability in effect)
+ * - resource attributes sampler.type and sampler.target_spans_per_second. A resource is
+ *   fixed when the SDK starts, so the live ratio cannot be a resource attribute.
+ */
+public class AdaptiveRateSampler implements Sampler, MeterBinder {
+
+    private static final AttributeKey<Double> SAMPLER_RATIO = AttributeKey.doubleKey("sampler.ratio");
+    private static final AttributeKey<String> SAMPLER_TYPE = AttributeKey.stringKey("sampler.type");
+    private static final AttributeKey<Double> SAMPLER_TARGET = AttributeKey.doubleKey("sampler.target_spans_per_second");
+
+    // Floor, so a long overload does not stop sampling altogether
+    private static final double MIN_RATIO = 0.0001;
+    private static final double MAX_DECREASE = 0.1;
+    private static final double MAX_INCREASE = 2.0;
+
+    private final double targetSpansPerSecond;
+    private final long intervalNanos;
+    private final long spanBudgetPerInterval;
+
+    private final LongAdder spansInInterval = new LongAdder();
+    private final LongAdder sampledInInterval = new LongAdder();
+    private final LongAdder limitedInInterval = new LongAdder();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    private volatile long intervalStartNanos = System.nanoTime();
+    private volatile double ratio = 1.0;
+    private volatile long upperBound = Long.MAX_VALUE;
+    private volatile SamplingResult sampledResult = sampledResult(1.0);
+
+    public AdaptiveRateSampler(double targetSpansPerSecond, Duration adjustInterval) {
+        this.targetSpansPerSecond = targetSpansPerSecond;
+        this.intervalNanos = adjustInterval.toNanos();
+        this.spanBudgetPerInterval = Math.max(1, (long) (targetSpansPerSecond * adjustInterval.toNanos() / 1e9));
+    }
+
+    @Override
+    public SamplingResult shouldSample(Context parentContext, String traceId, String name, SpanKind spanKind,
+                                       Attributes attributes, List<LinkData> parentLinks) {
+        long now = System.nanoTime();
+        if (now - intervalStartNanos >= intervalNanos) {
+            adjust(now);
+        }
+        // The random low 64 bits of the trace ID, as in TraceIdRatioBased
+        long random = Long.parseUnsignedLong(traceId, 16, 32, 16) & Long.MAX_VALUE;
+        if (random >= upperBound) {
+            dropped.increment();
+            return SamplingResult.drop();
+        }
+        if (spansInInterval.sum() >= spanBudgetPerInterval) {
+            limitedInInterval.increment();
+            rateLimited.increment();
+            return SamplingResult.drop();
+        }
+        sampledInInterval.increment();
+        sampled.increment();
+        return sampledResult;
+    }
+
+    @Override
+    public String getDescription() {
+        return "AdaptiveRateSampler{targetSpansPerSecond=" + targetSpansPerSecond + "}";
+    }
+
+    private synchronized void adjust(long now) {
+        long elapsedNanos = now - intervalStartNanos;
+        if (elapsedNanos < intervalNanos) {
+            // Another thread adjusted first
+            return;
+        }
+        long sampledRoots = sampledInInterval.sumThenReset();
+        long limitedRoots = limitedInInterval.sumThenReset();
+        double spanRate = spansInInterval.sumThenReset() * 1e9 / elapsedNanos;
+        double factor;
+        if (sampledRoots == 0) {
+            factor = limitedRoots > 0 ? MAX_DECREASE : MAX_INCREASE;
+        } else {
+            // Span rate had the rate limit not turned roots away
+            double demandedRate = spanRate * (sampledRoots + limitedRoots) / sampledRoots;
+            factor = demandedRate > 0 ? targetSpansPerSecond / demandedRate : MAX_INCREASE;
+        }
+        double newRatio = Math.max(MIN_RATIO, Math.min(1.0,
+                ratio * Math.max(MAX_DECREASE, Math.min(MAX_INCREASE, factor))));
+
+        if (newRatio != ratio) {
+            ratio = newRatio;
+            upperBound = newRatio >= 1.0 ? Long.MAX_VALUE : (long) (newRatio * Long.MAX_VALUE);
+            sampledResult = sampledResult(newRatio);
+        }
+        intervalStartNanos = now;
+    }
+
+    private static SamplingResult sampledResult(double ratio) {
+        return SamplingResult.create(SamplingDecision.RECORD_AND_SAMPLE, Attributes.of(SAMPLER_RATIO, ratio));
+    }
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    /**
+     * Counts sampled spans as they end; the feedback signal for the probability.
+     */
+    public SpanProcessor spanCounter() {
+        return new SpanProcessor() {
+            @Override
+            public void onStart(Context parentContext, ReadWriteSpan span) {
+            }
+
+            @Override
+            public boolean isStartRequired() {
+                return false;
+            }
+
+            @Override
+            public void onEnd(ReadableSpan span) {
+                if (span.getSpanContext().isSampled()) {
+                    spansInInterval.increment();
+                }
+            }
+
+            @Override
+            public boolean isEndRequired() {
+                return true;
+            }
+        };
+    }
+
+    public Resource resource() {
+        return Resource.create(Attributes.of(
+                SAMPLER_TYPE, "adaptive-rate",
+                SAMPLER_TARGET, targetSpansPerSecond));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tracing.sampler.ratio", this, AdaptiveRateSampler::getRatio)
+                .description("Probability with which the adaptive sampler currently samples root spans")
+                .register(registry);
+        bindDecisions(registry, "sampled", sampled);
+        bindDecisions(registry, "dropped", dropped);
+        bindDecisions(registry, "rate_limited", rateLimited);
+    }
+
+    private static void bindDecisions(MeterRegistry registry, String decision, LongAdder count) {
+        FunctionCounter.builder("tracing.sampler.decisions", count, LongAdder::sum)
+                .description("Root span sampling decisions of the adaptive sampler")
+                .tag("decision", decision)
+                .register(registry);
+    }
+}
@@ -4,6 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
@@ -36,9 +37,17 @@ public class BackendApplication {
      * ✅ You get a complete view of the request flow across all services
      *
      * This is a common mistake when implementing OpenTelemetry Spring Boot Starter!
+     *
+     * The builder is given the pooled request factory from HttpClientConfig so upstream
+     * connections are kept alive and reused. Swapping the request factory does not affect
+     * the OpenTelemetry interceptor, which is added to the built RestTemplate.
+     *
+     * The builder's message converters include the CBOR and Smile converters of
+     * WireFormatConfig, used for a binary upstream.wire-format.
      */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.build();
+    public RestTemplate restTemplate(RestTemplateBuilder builder,
+                                     HttpComponentsClientHttpRequestFactory upstreamRequestFactory) {
+        return builder.requestFactory(() -> upstreamRequestFactory).build();
     }
 }
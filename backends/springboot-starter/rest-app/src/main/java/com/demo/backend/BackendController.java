@@ -1,17 +1,42 @@
 package com.demo.backend;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Backend Controller - Demonstrates OpenTelemetry Spring Boot Starter instrumentation
@@ -25,38 +50,356 @@ import java.util.Map;
  * - All @RequestMapping endpoints (creates server spans)
  * - RestTemplate calls (creates client spans with context propagation)
  * - Exception handling (records exceptions in spans)
+ *
+ * /api/frontend_to_backend/batch proxies many operations in one request: a
+ * "proxy-batch" span with one "proxy-batch-item" child span per item.
+ *
+ * Streaming mode: /api/frontend_to_backend/stream and the NDJSON variant of the batch
+ * endpoint write their response as it is produced (chunked transfer) instead of
+ * building it in memory, so heap per request stays flat regardless of response size.
  */
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "*")
 public class BackendController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    // Bytes copied per read when piping an upstream stream to the client
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    // Register the callbacks that release a streamed response's span (and permit) when the async request ends
+    private static final Object STREAM_INTERCEPTOR_KEY = BackendController.class.getName() + ".stream";
+    private static final Object BATCH_INTERCEPTOR_KEY = BackendController.class.getName() + ".batch";
+
     @Autowired
     private RestTemplate restTemplate;
 
-    @Value("${upstream.service.url}")
-    private String upstreamUrl;
+    @Autowired
+    private PayloadCapture payloadCapture;
+
+    @Autowired
+    private UpstreamResponseCache upstreamResponseCache;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private UpstreamResilience upstreamResilience;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private ExecutorService batchProxyExecutor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${upstream.wire-format:json}")
+    private WireFormat wireFormat;
+
+    @Value("${upstream.payload-digest.enabled:false}")
+    private boolean payloadDigest;
+
+    @Value("${upstream.batch.max-items:100}")
+    private int batchMaxItems;
+
+    @Value("${upstream.stream.max-count:1000000}")
+    private int streamMaxCount;
+
+    private final Tracer tracer;
+
+    private final String upstreamUrl;
+
+    // Target of proxyRequest, built once rather than per request
+    private final String proxyUrl;
+
+    private final ProxySpanRecorder proxySpans;
+
+    public BackendController(OpenTelemetry openTelemetry, @Value("${upstream.service.url}") String upstreamUrl) {
+        this.tracer = openTelemetry.getTracer("com.demo.backend");
+        this.upstreamUrl = upstreamUrl;
+        this.proxyUrl = upstreamUrl + "/api/backend_to_upstream";
+        this.proxySpans = new ProxySpanRecorder(proxyUrl);
+    }
 
     @GetMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> getRequest() {
+    public ResponseEntity<?> getRequest() {
         return proxyRequest(HttpMethod.GET, null);
     }
 
     @PostMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> postRequest(@RequestBody(required = false) Map<String, Object> payload) {
+    public ResponseEntity<?> postRequest(@RequestBody(required = false) Map<String, Object> payload) {
         return proxyRequest(HttpMethod.POST, payload);
     }
 
     @PutMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> putRequest(@RequestBody(required = false) Map<String, Object> payload) {
+    public ResponseEntity<?> putRequest(@RequestBody(required = false) Map<String, Object> payload) {
         return proxyRequest(HttpMethod.PUT, payload);
     }
 
     @DeleteMapping("/frontend_to_backend")
-    public ResponseEntity<Map<String, Object>> deleteRequest() {
+    public ResponseEntity<?> deleteRequest() {
         return proxyRequest(HttpMethod.DELETE, null);
     }
 
+    /**
+     * Proxies a batch of operations, [{"method": "GET", "payload": {...}}, ...], in one round trip.
+     *
+     * The items run concurrently on the batch pool (see BatchConfig), each through the
+     * same path as a single request (limiter, cache, single-flight, circuit breaker).
+     * Results come back in request order as {"index", "status", "body"}; a failed item
+     * does not fail the batch.
+     *
+     * Tracing: a "proxy-batch" span (batch.size) is the parent of one
+     * "proxy-batch-item" span per item (batch.index, http.method), which in turn
+     * parents that item's RestTemplate client span.
+     */
+    @PostMapping("/frontend_to_backend/batch")
+    public ResponseEntity<Map<String, Object>> batchRequest(@RequestBody List<Map<String, Object>> items) {
+        if (items.size() > batchMaxItems) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("service", "backend");
+            errorResponse.put("error", "Batch too large");
+            errorResponse.put("maxItems", batchMaxItems);
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+
+        Span batchSpan = tracer.spanBuilder("proxy-batch")
+                .setAttribute("batch.size", items.size())
+                .startSpan();
+        try (Scope ignored = batchSpan.makeCurrent()) {
+            List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                int index = i;
+                futures.add(CompletableFuture.supplyAsync(() -> proxyBatchItem(index, items.get(index)), batchProxyExecutor));
+            }
+
+            List<Map<String, Object>> results = new ArrayList<>(items.size());
+            int failed = 0;
+            for (CompletableFuture<Map<String, Object>> future : futures) {
+                Map<String, Object> result = future.join();
+                if ((int) result.get("status") >= 400) {
+                    failed++;
+                }
+                results.add(result);
+            }
+            batchSpan.setAttribute("batch.failed", failed);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("service", "backend");
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        } finally {
+            batchSpan.end();
+        }
+    }
+
+    /**
+     * NDJSON variant of the batch endpoint (Accept: application/x-ndjson).
+     *
+     * Each item's result ({"index", "status", "body"}) is written and flushed as its own
+     * line as soon as the item completes, so results arrive in completion order and the
+     * response is never held in memory as a whole. The proxy-batch span ends after the
+     * last line is written, or from the async completion callback if the body never runs
+     * (client gone, async timeout, executor rejected the task).
+     */
+    @PostMapping(value = "/frontend_to_backend/batch", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> batchRequestNdjson(@RequestBody List<Map<String, Object>> items,
+                                                                    HttpServletRequest request) {
+        if (items.size() > batchMaxItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch too large, max " + batchMaxItems + " items");
+        }
+
+        Span batchSpan = tracer.spanBuilder("proxy-batch")
+                .setAttribute("batch.size", items.size())
+                .startSpan();
+        BlockingQueue<Map<String, Object>> completed = new LinkedBlockingQueue<>();
+        try (Scope ignored = batchSpan.makeCurrent()) {
+            for (int i = 0; i < items.size(); i++) {
+                int index = i;
+                CompletableFuture.supplyAsync(() -> proxyBatchItem(index, items.get(index)), batchProxyExecutor)
+                        .whenComplete((result, error) -> completed.add(result != null ? result : failedBatchItem(index, error)));
+            }
+        }
+        Runnable finish = finishOnAsyncCompletion(request, BATCH_INTERCEPTOR_KEY, batchSpan, "Batch did not complete", () -> { });
+
+        StreamingResponseBody body = out -> {
+            int failed = 0;
+            try {
+                for (int i = 0; i < items.size(); i++) {
+                    Map<String, Object> result = completed.take();
+                    if ((int) result.get("status") >= 400) {
+                        failed++;
+                    }
+                    out.write(objectMapper.writeValueAsBytes(result));
+                    out.write('\n');
+                    out.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while streaming batch results", e);
+            } finally {
+                batchSpan.setAttribute("batch.failed", failed);
+                finish.run();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private static Map<String, Object> failedBatchItem(int index, Throwable error) {
+        Map<String, Object> errorBody = new HashMap<>();
+        errorBody.put("service", "backend");
+        errorBody.put("error", "Batch item failed");
+        errorBody.put("message", error.getMessage());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("index", index);
+        result.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
+        result.put("body", errorBody);
+        return result;
+    }
+
+    /**
+     * Streams count NDJSON records from the upstream's /api/backend_to_upstream/stream
+     * through to the client.
+     *
+     * The upstream body is copied in STREAM_BUFFER_SIZE chunks and flushed after every
+     * read, so records reach the client as they arrive and the backend never holds more
+     * than one buffer per request. Nothing is parsed, cached or coalesced on this path.
+     *
+     * The copy runs on the MVC async thread after this method returns, so the
+     * "proxy-stream" span is made current there explicitly; the RestTemplate client span
+     * is its child. The span ends when the stream is complete and records stream.bytes.
+     *
+     * count must be between 1 and upstream.stream.max-count (400 otherwise). The
+     * concurrency permit and the span are also released by an async completion callback,
+     * so a body that never runs (client gone, async timeout, executor rejected the task)
+     * does not hold a permit forever.
+     */
+    @GetMapping(value = "/frontend_to_backend/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamRequest(@RequestParam(defaultValue = "100") int count,
+                                                               HttpServletRequest request) {
+        if (count < 1 || count > streamMaxCount) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must be between 1 and " + streamMaxCount);
+        }
+        String url = upstreamUrl + "/api/backend_to_upstream/stream?count=" + count;
+
+        Span streamSpan = tracer.spanBuilder("proxy-stream")
+                .setAttribute("upstream.url", url)
+                .startSpan();
+
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(streamSpan);
+        if (permit == null) {
+            streamSpan.setStatus(StatusCode.ERROR, "Concurrency limit reached");
+            streamSpan.end();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Concurrency limit reached");
+        }
+
+        // A stream's duration is not a round-trip time, so it does not move the limit
+        Runnable finish = finishOnAsyncCompletion(request, STREAM_INTERCEPTOR_KEY, streamSpan, "Stream did not complete",
+                permit::onIgnore);
+
+        Context context = Context.current().with(streamSpan);
+        StreamingResponseBody body = out -> {
+            try (Scope ignored = context.makeCurrent()) {
+                streamSpan.addEvent("starting-upstream-call");
+                Long bytes = restTemplate.execute(url, HttpMethod.GET,
+                        upstreamRequest -> upstreamRequest.getHeaders().setAccept(List.of(MediaType.parseMediaType(NDJSON))),
+                        response -> pipe(response.getBody(), out));
+                streamSpan.setAttribute("stream.bytes", bytes);
+                streamSpan.addEvent("upstream-stream-completed");
+                streamSpan.setStatus(StatusCode.OK);
+            } catch (RuntimeException e) {
+                // I/O errors arrive as ResourceAccessException. The status line is already sent; the client sees a truncated stream
+                streamSpan.recordException(e);
+                streamSpan.setStatus(StatusCode.ERROR, "Upstream stream failed");
+                streamSpan.addEvent("upstream-call-failed");
+                throw e;
+            } finally {
+                finish.run();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Returns the Runnable a StreamingResponseBody runs in its finally: it calls release and
+     * ends the span, once. The same Runnable is registered to run when the async request
+     * completes, so a body that never runs still releases; the span then gets status ERROR
+     * with notCompletedStatus.
+     */
+    private static Runnable finishOnAsyncCompletion(HttpServletRequest request, Object key, Span span,
+                                                    String notCompletedStatus, Runnable release) {
+        // Whichever comes first of the body's finally and the async completion releases
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable finish = () -> {
+            if (finished.compareAndSet(false, true)) {
+                release.run();
+                span.end();
+            }
+        };
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(key,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        if (!finished.get()) {
+                            span.setStatus(StatusCode.ERROR, notCompletedStatus);
+                        }
+                        finish.run();
+                    }
+                });
+        return finish;
+    }
+
+    private static long pipe(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
+            total += read;
+        }
+        return total;
+    }
+
+    private Map<String, Object> proxyBatchItem(int index, Map<String, Object> item) {
+        // A null element of the JSON array is an invalid item, like a missing method
+        Object method = item != null ? item.get("method") : null;
+        Object payload = item != null ? item.get("payload") : null;
+
+        Span itemSpan = tracer.spanBuilder("proxy-batch-item")
+                .setAttribute("batch.index", index)
+                .setAttribute("http.method", String.valueOf(method))
+                .startSpan();
+        try (Scope ignored = itemSpan.makeCurrent()) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("index", index);
+
+            HttpMethod httpMethod = method instanceof String ? HttpMethod.resolve(((String) method).toUpperCase()) : null;
+            if (httpMethod == null || (payload != null && !(payload instanceof Map))) {
+                itemSpan.setStatus(StatusCode.ERROR, "Invalid batch item");
+                Map<String, Object> errorBody = new HashMap<>();
+                errorBody.put("service", "backend");
+                errorBody.put("error", "Invalid batch item: method must be an HTTP method and payload an object");
+                result.put("status", HttpStatus.BAD_REQUEST.value());
+                result.put("body", errorBody);
+                return result;
+            }
+
+            // proxyRequest records its events and status on the current span - the item span
+            @SuppressWarnings("unchecked")
+            ResponseEntity<?> response = proxyRequest(httpMethod, (Map<String, Object>) payload);
+            result.put("status", response.getStatusCodeValue());
+            result.put("body", response.getBody());
+            return result;
+        } finally {
+            itemSpan.end();
+        }
+    }
+
     /**
      * Proxies requests to the upstream service with OpenTelemetry instrumentation.
      *
@@ -77,34 +420,50 @@ public class BackendController {
      *
      * With @WithSpan:
      * - An additional "proxy-request" span is created
-     * - HTTP method and payload are captured as span attributes
+     * - HTTP method is captured as a span attribute
+     * - A bounded view of the payload is recorded by PayloadCapture (see application.properties)
      * - You get more granular visibility into the request processing
      *
      * Note: This method also demonstrates manual span manipulation using Span.current()
      * for adding custom events and attributes beyond what annotations provide.
      */
     @WithSpan("proxy-request")
-    private ResponseEntity<Map<String, Object>> proxyRequest(
+    private ResponseEntity<?> proxyRequest(
             @SpanAttribute("http.method") HttpMethod method,
-            @SpanAttribute("request.payload") Map<String, Object> payload) {
+            Map<String, Object> payload) {
 
         // Get the current span for manual instrumentation
         // The Spring Boot Starter makes this span available in the current context
         Span currentSpan = Span.current();
 
-        try {
-            String url = upstreamUrl + "/api/backend_to_upstream";
+        // Record a size-capped view of the payload rather than the whole Map
+        payloadCapture.record(currentSpan, payload);
 
-            // Add a custom attribute to the current span
-            // This is useful for capturing business logic details
-            currentSpan.setAttribute("upstream.url", url);
+        // Shed load before doing any upstream work once the adaptive limit is reached
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(currentSpan);
+        if (permit == null) {
+            proxySpans.rejected(currentSpan);
 
-            // Add an event to mark the start of the upstream call
-            // Events are timestamped annotations that help track request lifecycle
-            currentSpan.addEvent("starting-upstream-call");
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("service", "backend");
+            errorResponse.put("error", "Concurrency limit reached");
+            errorResponse.put("limit", concurrencyLimiter.getLimit());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+        }
+
+        try {
+            // Record upstream.url and a "starting-upstream-call" event on the current span.
+            // ProxySpanRecorder skips all span work when the span is not sampled
+            proxySpans.started(currentSpan);
 
+            // JSON, CBOR or Smile on the upstream hop (see WireFormat)
             HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentType(wireFormat.mediaType());
+            headers.setAccept(List.of(wireFormat.mediaType()));
+            // Ask for a digest of the payload instead of the payload echoed back (see PayloadDigest)
+            if (payloadDigest) {
+                headers.set("Prefer", "return=minimal");
+            }
 
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(payload, headers);
 
@@ -113,43 +472,55 @@ public class BackendController {
             // 1. Create a client span
             // 2. Inject the traceparent header for context propagation
             // 3. Link this span to the upstream service's span (if instrumented)
-            ResponseEntity<Map> upstreamResponse = restTemplate.exchange(
-                url,
-                method,
-                entity,
-                Map.class
-            );
+            //
+            // Cacheable requests (see UpstreamResponseCache) may be answered from memory,
+            // in which case there is no client span and upstream.cache.hit=true
+            UpstreamResponse upstreamBody = (UpstreamResponse) upstreamResponseCache.get(method, proxyUrl, payload, currentSpan,
+                    () -> exchange(method, proxyUrl, entity, currentSpan, permit));
 
-            // Add an event to mark successful completion
-            currentSpan.addEvent("upstream-call-completed");
+            // The round-trip time of a successful call feeds the adaptive limit (only when
+            // this request made the call, not for cache hits or SingleFlight followers)
+            permit.onSuccess();
 
-            // Set the span status to OK
-            // This helps distinguish successful operations from errors in traces
-            currentSpan.setStatus(StatusCode.OK);
+            // "upstream-call-completed" event and status OK
+            proxySpans.completed(currentSpan);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("service", "backend");
-            response.put("method", method.name());
-            response.put("upstream", upstreamResponse.getBody());
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new ProxyResponse("backend", method.name(), upstreamBody));
         } catch (Exception e) {
-            // Record the exception in the span
-            // This is done automatically by Spring Boot Starter, but we're showing it explicitly
-            currentSpan.recordException(e);
+            // Upstream I/O errors, timeouts and 5xx shrink the adaptive limit
+            if (e instanceof ResourceAccessException || e instanceof HttpServerErrorException) {
+                permit.onDropped();
+            }
 
-            // Set the span status to ERROR with a description
-            // This makes errors highly visible in Honeycomb's trace view
-            currentSpan.setStatus(StatusCode.ERROR, "Failed to connect to upstream service");
+            // Record the exception, status ERROR and an "upstream-call-failed" event
+            // (the starter records exceptions too; this shows it explicitly)
+            proxySpans.failed(currentSpan, e);
 
-            // Add an error event with details
-            currentSpan.addEvent("upstream-call-failed");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse("backend", "Failed to connect to upstream service", e.getMessage()));
+        } finally {
+            // Any other outcome (4xx, circuit open) releases the permit without a sample
+            permit.onIgnore();
+        }
+    }
 
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("service", "backend");
-            errorResponse.put("error", "Failed to connect to upstream service");
-            errorResponse.put("message", e.getMessage());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    /**
+     * Calls the upstream through SingleFlight, so identical concurrent calls share one
+     * upstream request. Waiters get a span link to the request that made the call.
+     * The call itself runs inside the circuit breaker and bulkhead (UpstreamResilience),
+     * and marks the permit of the request that made it.
+     */
+    private Object exchange(HttpMethod method, String url, HttpEntity<Map<String, Object>> entity, Span currentSpan,
+                            AdaptiveConcurrencyLimiter.Permit permit) {
+        try {
+            return singleFlight.execute(method, url, entity.getBody(), currentSpan,
+                    () -> CompletableFuture.completedFuture(upstreamResilience.call(currentSpan, () -> {
+                        permit.markUpstreamCall();
+                        return restTemplate.exchange(url, method, entity, UpstreamResponse.class).getBody();
+                    })))
+                    .join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
         }
     }
 }
@@ -0,0 +1,37 @@
+package com.demo.backend;
+
+import io.opentelemetry.context.Context;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pool for the items of /api/frontend_to_backend/batch.
+ *
+ * BackendController.batchRequest fans the items out to this pool so their upstream
+ * calls run concurrently; upstream.batch.parallelism caps the upstream calls in flight
+ * across all batches. The request thread waits for the items and writes the response.
+ *
+ * CRITICAL FOR OPENTELEMETRY CONTEXT PROPAGATION:
+ *
+ * The Spring Boot Starter does not instrument executors. The pool is wrapped with
+ * Context.taskWrapping, so each item runs with the context it was submitted from and
+ * its span (and the RestTemplate client span) become children of the batch span.
+ */
+@Configuration
+public class BatchConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchProxyExecutor(@Value("${upstream.batch.parallelism:16}") int parallelism) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Context.taskWrapping(Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "upstream-batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+}
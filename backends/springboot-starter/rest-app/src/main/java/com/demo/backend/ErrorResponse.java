@@ -0,0 +1,10 @@
+package com.demo.backend;
+
+/**
+ * /api/frontend_to_backend response when the upstream call failed: {"service", "error", "message"}.
+ */
+public record ErrorResponse(
+        String service,
+        String error,
+        String message) {
+}
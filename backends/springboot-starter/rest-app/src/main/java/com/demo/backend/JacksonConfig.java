@@ -0,0 +1,30 @@
+package com.demo.backend;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in Blackbird acceleration for the shared ObjectMapper (json.blackbird.enabled=true).
+ *
+ * Blackbird replaces Jackson's reflective property access on records and beans with
+ * generated LambdaMetafactory accessors, which cuts serialization CPU for typed bodies
+ * such as ProxyResponse and UpstreamResponse. It has no effect on Map bodies. Blackbird
+ * is the Java 11+ successor of Afterburner, which relies on class-loader tricks that
+ * newer JDKs restrict.
+ *
+ * Spring Boot registers every Module bean with the auto-configured ObjectMapper, which
+ * the MVC message converters and the RestTemplate built from RestTemplateBuilder use,
+ * so both the inbound response and the upstream body are covered.
+ */
+@Configuration
+@ConditionalOnProperty(name = "json.blackbird.enabled", havingValue = "true")
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
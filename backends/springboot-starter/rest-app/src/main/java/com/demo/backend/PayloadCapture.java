@@ -0,0 +1,226 @@
+package com.demo.backend;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded capture of the request payload as span attributes.
+ *
+ * Annotating the payload with @SpanAttribute stringifies the whole Map on every request
+ * and queues the full string for export. This component records a bounded view instead:
+ *
+ * - request.payload           - the payload rendered as Map.toString(), truncated to max-length
+ *                               (omitted when max-length is 0)
+ * - request.payload.size      - UTF-8 size in bytes of the full rendering
+ * - request.payload.truncated - true when request.payload was cut
+ * - request.payload.sha256    - hash of the full rendering (only when hash=true)
+ *
+ * The payload is walked recursively (nested maps and lists are rendered the way their
+ * toString would) and written in small pieces: keys, separators and scalar values.
+ * Pieces past max-length are only measured (and hashed), never appended, so neither
+ * the full rendering nor the rendering of one large nested value is ever built. Only
+ * allowlisted keys are rendered when payload.capture.allowed-keys is set, and
+ * sample-rate controls the fraction of requests that capture anything at all.
+ *
+ * Metrics:
+ * - payload.capture.bytes.saved - UTF-8 bytes not attached to spans because of truncation
+ * - payload.capture.skipped     - payloads not captured because of sampling
+ */
+@Component
+public class PayloadCapture {
+
+    private static final AttributeKey<String> PAYLOAD = AttributeKey.stringKey("request.payload");
+    private static final AttributeKey<Long> PAYLOAD_SIZE = AttributeKey.longKey("request.payload.size");
+    private static final AttributeKey<Boolean> PAYLOAD_TRUNCATED = AttributeKey.booleanKey("request.payload.truncated");
+    private static final AttributeKey<String> PAYLOAD_SHA256 = AttributeKey.stringKey("request.payload.sha256");
+
+    private final boolean enabled;
+    private final int maxLength;
+    private final boolean hash;
+    private final Set<String> allowedKeys;
+    private final double sampleRate;
+
+    private final Counter bytesSaved;
+    private final Counter skipped;
+
+    public PayloadCapture(
+            MeterRegistry meterRegistry,
+            @Value("${payload.capture.enabled:true}") boolean enabled,
+            @Value("${payload.capture.max-length:256}") int maxLength,
+            @Value("${payload.capture.hash:false}") boolean hash,
+            @Value("${payload.capture.allowed-keys:}") List<String> allowedKeys,
+            @Value("${payload.capture.sample-rate:1.0}") double sampleRate) {
+        this.enabled = enabled;
+        this.maxLength = maxLength;
+        this.hash = hash;
+        this.allowedKeys = new HashSet<>(allowedKeys);
+        this.allowedKeys.remove("");
+        this.sampleRate = sampleRate;
+
+        this.bytesSaved = Counter.builder("payload.capture.bytes.saved")
+                .description("Payload bytes (UTF-8) not attached to spans because of truncation")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("payload.capture.skipped")
+                .description("Payloads not captured because of sampling")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a bounded view of the payload on the given span.
+     * Does nothing when capture is disabled, the payload is null or the span is not recording.
+     */
+    public void record(Span span, Map<String, Object> payload) {
+        if (!enabled || payload == null || !span.isRecording()) {
+            return;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            skipped.increment();
+            return;
+        }
+
+        BoundedRendering rendering = new BoundedRendering(maxLength, hash ? sha256() : null);
+        rendering.append("{");
+        boolean first = true;
+        for (Map.Entry<String, Object> entry : payload.entrySet()) {
+            if (!allowedKeys.isEmpty() && !allowedKeys.contains(entry.getKey())) {
+                continue;
+            }
+            if (!first) {
+                rendering.append(", ");
+            }
+            first = false;
+            rendering.append(entry.getKey());
+            rendering.append("=");
+            render(rendering, entry.getValue());
+        }
+        rendering.append("}");
+
+        if (maxLength > 0) {
+            span.setAttribute(PAYLOAD, rendering.captured.toString());
+        }
+        span.setAttribute(PAYLOAD_SIZE, rendering.bytes);
+        if (rendering.truncated) {
+            span.setAttribute(PAYLOAD_TRUNCATED, true);
+            bytesSaved.increment(rendering.bytes - rendering.capturedBytes);
+        }
+        if (rendering.digest != null) {
+            span.setAttribute(PAYLOAD_SHA256, toHex(rendering.digest.digest()));
+        }
+    }
+
+    /**
+     * Renders a JSON value like its toString (Map as {k=v, ...}, List as [a, ...]) without
+     * building the string of a map or list.
+     */
+    private static void render(BoundedRendering rendering, Object value) {
+        if (value instanceof Map) {
+            rendering.append("{");
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    rendering.append(", ");
+                }
+                first = false;
+                render(rendering, entry.getKey());
+                rendering.append("=");
+                render(rendering, entry.getValue());
+            }
+            rendering.append("}");
+        } else if (value instanceof Collection) {
+            rendering.append("[");
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    rendering.append(", ");
+                }
+                first = false;
+                render(rendering, element);
+            }
+            rendering.append("]");
+        } else {
+            rendering.append(String.valueOf(value));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Keeps at most maxLength characters, while still measuring (in UTF-8 bytes) and
+     * optionally hashing everything appended.
+     */
+    private static class BoundedRendering {
+
+        private final int maxLength;
+        private final MessageDigest digest;
+        private final StringBuilder captured;
+        private long bytes;
+        private long capturedBytes;
+        private boolean truncated;
+
+        BoundedRendering(int maxLength, MessageDigest digest) {
+            this.maxLength = maxLength;
+            this.digest = digest;
+            this.captured = new StringBuilder(Math.min(maxLength, 64));
+        }
+
+        void append(String part) {
+            int kept = Math.min(Math.max(maxLength - captured.length(), 0), part.length());
+            if (kept > 0) {
+                captured.append(part, 0, kept);
+                capturedBytes += utf8Length(part, 0, kept);
+            }
+            if (kept < part.length()) {
+                truncated = true;
+            }
+            bytes += utf8Length(part, 0, part.length());
+            if (digest != null) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private static long utf8Length(String s, int from, int to) {
+            long n = 0;
+            for (int i = from; i < to; i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    n += 1;
+                } else if (c < 0x800 || Character.isSurrogate(c)) {
+                    // A surrogate pair is 4 bytes, 2 per char
+                    n += 2;
+                } else {
+                    n += 3;
+                }
+            }
+            return n;
+        }
+    }
+}
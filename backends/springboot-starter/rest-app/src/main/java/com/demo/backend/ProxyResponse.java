@@ -0,0 +1,10 @@
+package com.demo.backend;
+
+/**
+ * Successful /api/frontend_to_backend response: {"service", "method", "upstream"}.
+ */
+public record ProxyResponse(
+        String service,
+        String method,
+        UpstreamResponse upstream) {
+}
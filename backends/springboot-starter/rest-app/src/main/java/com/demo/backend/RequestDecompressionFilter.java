@@ -0,0 +1,200 @@
+package com.demo.backend;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Transparent decompression of request bodies (Content-Encoding: gzip or deflate).
+ *
+ * server.compression only covers responses. A client that compresses a large payload
+ * for /api/frontend_to_backend has it inflated here before Spring MVC reads the body, so
+ * the controller and PayloadCapture see the plain payload. Content-Encoding and Content-Length are hidden from
+ * the wrapped request. Other encodings get 415, a corrupt body 400.
+ *
+ * request-decompression.max-size caps the inflated size, so a small compressed body
+ * cannot expand without bound; reading past it fails and the request gets a 400.
+ */
+@Component
+@ConditionalOnProperty(name = "request-decompression.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private final long maxSize;
+
+    public RequestDecompressionFilter(@Value("${request-decompression.max-size:10MB}") DataSize maxSize) {
+        this.maxSize = maxSize.toBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.equalsIgnoreCase("identity")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        InputStream body;
+        try {
+            switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+                case "gzip":
+                case "x-gzip":
+                    body = new GZIPInputStream(request.getInputStream());
+                    break;
+                case "deflate":
+                    body = new InflaterInputStream(request.getInputStream());
+                    break;
+                default:
+                    response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE,
+                            "Unsupported Content-Encoding: " + encoding);
+                    return;
+            }
+        } catch (IOException e) {
+            // GZIPInputStream reads the header up front
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + encoding + " request body");
+            return;
+        }
+
+        chain.doFilter(new DecompressedRequest(request, new BoundedServletInputStream(body, maxSize)), response);
+    }
+
+    private static class DecompressedRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream body;
+
+        DecompressedRequest(HttpServletRequest request, ServletInputStream body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(body, charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !isHidden(name))
+                    .toList());
+        }
+
+        private static boolean isHidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private static class BoundedServletInputStream extends ServletInputStream {
+
+        private final InputStream delegate;
+        private final long maxSize;
+        private long count;
+        private boolean finished;
+
+        BoundedServletInputStream(InputStream delegate, long maxSize) {
+            this.delegate = delegate;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            onRead(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = delegate.read(buffer, offset, length);
+            onRead(n);
+            return n;
+        }
+
+        private void onRead(int n) throws IOException {
+            if (n < 0) {
+                finished = true;
+                return;
+            }
+            count += n;
+            if (count > maxSize) {
+                throw new IOException("Decompressed request body exceeds " + maxSize + " bytes");
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        /**
+         * Not supported: the inflated stream cannot tell when more compressed bytes are
+         * available. Nothing behind this filter sets one. Spring MVC reads request bodies
+         * with blocking reads, also for async (StreamingResponseBody, Callable) handlers,
+         * which only make the response asynchronous.
+         */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Async reads of compressed request bodies are not supported");
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
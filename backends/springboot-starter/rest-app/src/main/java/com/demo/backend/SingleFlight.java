@@ -0,0 +1,138 @@
+package com.demo.backend;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing for concurrent identical upstream calls (upstream.single-flight.enabled=true).
+ *
+ * While an upstream call is in flight, further requests with the same method, target and
+ * payload do not make their own call: they wait for the in-flight one (the leader) and
+ * receive the same response or the same error. The target is the upstream URL. Once
+ * the leader's call completes the key is released, so nothing is cached - the next
+ * request calls the upstream again.
+ *
+ * Only methods in upstream.single-flight.methods are coalesced. POST is left out by
+ * default because collapsing non-idempotent calls changes their effect on the upstream.
+ *
+ * Tracing: each waiter's span gets upstream.single_flight.waiter=true and a span link
+ * to the leader's span (link attribute single_flight.role=leader), so a waiter's trace
+ * leads to the trace that contains the actual upstream client span.
+ *
+ * Metrics:
+ * - upstream.single_flight.requests{role=leader|waiter}
+ */
+@Component
+public class SingleFlight {
+
+    private static final AttributeKey<Boolean> WAITER = AttributeKey.booleanKey("upstream.single_flight.waiter");
+    private static final Attributes LEADER_LINK = Attributes.of(AttributeKey.stringKey("single_flight.role"), "leader");
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Set<HttpMethod> methods = new HashSet<>();
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter waiters;
+
+    public SingleFlight(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${upstream.single-flight.enabled:false}") boolean enabled,
+            @Value("${upstream.single-flight.methods:GET,PUT,DELETE}") List<String> methods) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        for (String method : methods) {
+            if (!method.isBlank()) {
+                this.methods.add(HttpMethod.valueOf(method.trim().toUpperCase()));
+            }
+        }
+        this.leaders = requestCounter(meterRegistry, "leader");
+        this.waiters = requestCounter(meterRegistry, "waiter");
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String role) {
+        return Counter.builder("upstream.single_flight.requests")
+                .description("Upstream calls made (leader) or shared (waiter) by request coalescing")
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the call, or joins an identical call that is already in flight.
+     * Exceptions thrown by the call complete the returned future exceptionally.
+     */
+    public CompletableFuture<Object> execute(HttpMethod method, String target, Object payload, Span span,
+                                             Supplier<CompletableFuture<Object>> call) {
+        String key = enabled && methods.contains(method) ? key(method, target, payload) : null;
+        if (key == null) {
+            return invoke(call);
+        }
+
+        Flight flight = new Flight(span.getSpanContext());
+        Flight leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            waiters.increment();
+            span.setAttribute(WAITER, true);
+            span.addLink(leader.spanContext, LEADER_LINK);
+            return leader.result;
+        }
+
+        leaders.increment();
+        invoke(call).whenComplete((body, error) -> {
+            // Release the key before fanning out, so later requests start a new call
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.result.completeExceptionally(error);
+            } else {
+                flight.result.complete(body);
+            }
+        });
+        return flight.result;
+    }
+
+    private static CompletableFuture<Object> invoke(Supplier<CompletableFuture<Object>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private String key(HttpMethod method, String target, Object payload) {
+        try {
+            return method.name() + " " + target + " " + objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            // Not coalesced rather than risk sharing a response between different payloads
+            return null;
+        }
+    }
+
+    private static class Flight {
+
+        private final SpanContext spanContext;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Flight(SpanContext spanContext) {
+            this.spanContext = spanContext;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.demo.backend;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process tail sampling in front of the span exporter (tracing.tail-sampling.enabled=true).
+ *
+ * Head sampling has to decide before a request has run, so it cannot favour the requests
+ * worth looking at. Here ended spans are buffered per trace until the trace's local root
+ * span (the server span, whose parent is remote or absent) ends, and the whole local trace
+ * is then kept or dropped:
+ * - error   - any span has status ERROR (e.g. the upstream-call-failed path)
+ * - slow    - the local root took at least slow-threshold
+ * - sampled - otherwise kept for success-ratio of trace IDs; the choice is derived from the
+ *             trace ID, so every service using the same ratio keeps the same fast traces
+ * - dropped - the rest, never handed to the exporter
+ *
+ * Memory is bounded: at most max-traces traces and max-spans spans are buffered, and a
+ * trace whose root has not ended within decision-wait is decided with the spans it has
+ * (oldest first, counted as evicted). Decisions are remembered for the last max-traces
+ * traces so spans ending after their root follow the same decision.
+ *
+ * Pending traces are checked whenever the batch processor exports, and all of them are
+ * decided on flush and shutdown.
+ */
+public class TailSamplingSpanExporter implements SpanExporter {
+
+    enum Decision {
+        ERROR, SLOW, SAMPLED, DROPPED;
+
+        boolean keep() {
+            return this != DROPPED;
+        }
+    }
+
+    private final SpanExporter delegate;
+    private final Stats stats;
+    private final long slowThresholdNanos;
+    private final long sampledUpperBound;
+    private final int maxTraces;
+    private final int maxSpans;
+    private final long decisionWaitNanos;
+
+    // Guarded by this. Insertion order, so the oldest pending trace comes first.
+    private final LinkedHashMap<String, PendingTrace> pending = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Boolean> decided;
+    private int bufferedSpans;
+
+    public TailSamplingSpanExporter(SpanExporter delegate, Stats stats, Duration slowThreshold, double successRatio,
+                                    int maxTraces, int maxSpans, Duration decisionWait) {
+        this.delegate = delegate;
+        this.stats = stats;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampledUpperBound = successRatio >= 1 ? Long.MAX_VALUE : (long) (Math.max(0, successRatio) * Long.MAX_VALUE);
+        this.maxTraces = maxTraces;
+        this.maxSpans = maxSpans;
+        this.decisionWaitNanos = decisionWait.toNanos();
+        this.decided = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxTraces;
+            }
+        };
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        List<SpanData> kept = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (SpanData span : spans) {
+                String traceId = span.getTraceId();
+                Boolean keep = decided.get(traceId);
+                if (keep != null) {
+                    // Ended after its local root
+                    if (keep) {
+                        kept.add(span);
+                    }
+                    stats.spans(keep, 1);
+                    continue;
+                }
+                PendingTrace trace = pending.computeIfAbsent(traceId, id -> new PendingTrace(now));
+                trace.add(span);
+                bufferedSpans++;
+                stats.buffered.incrementAndGet();
+                if (isLocalRoot(span)) {
+                    trace.rootDurationNanos = span.getEndEpochNanos() - span.getStartEpochNanos();
+                    decide(traceId, kept, false);
+                }
+            }
+            evict(now, kept);
+        }
+        return kept.isEmpty() ? CompletableResultCode.ofSuccess() : delegate.export(kept);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        List<SpanData> kept = new ArrayList<>();
+        synchronized (this) {
+            while (!pending.isEmpty()) {
+                decide(pending.keySet().iterator().next(), kept, true);
+            }
+        }
+        CompletableResultCode exported = kept.isEmpty() ? CompletableResultCode.ofSuccess() : delegate.export(kept);
+        return CompletableResultCode.ofAll(List.of(exported, delegate.flush()));
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        flush().join(10, TimeUnit.SECONDS);
+        return delegate.shutdown();
+    }
+
+    private static boolean isLocalRoot(SpanData span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+
+    /**
+     * Decides the oldest pending traces while the buffer is over its limits or they have
+     * waited longer than decision-wait for their root.
+     */
+    private void evict(long now, List<SpanData> kept) {
+        while (!pending.isEmpty()) {
+            Map.Entry<String, PendingTrace> oldest = pending.entrySet().iterator().next();
+            if (pending.size() <= maxTraces && bufferedSpans <= maxSpans
+                    && now - oldest.getValue().firstSeenNanos < decisionWaitNanos) {
+                return;
+            }
+            decide(oldest.getKey(), kept, true);
+        }
+    }
+
+    private void decide(String traceId, List<SpanData> kept, boolean evicted) {
+        PendingTrace trace = pending.remove(traceId);
+        Decision decision = trace.decide(traceId);
+        decided.put(traceId, decision.keep());
+
+        int size = trace.spans.size();
+        bufferedSpans -= size;
+        stats.buffered.addAndGet(-size);
+        stats.traces(decision, evicted);
+        stats.spans(decision.keep(), size);
+        if (decision.keep()) {
+            kept.addAll(trace.spans);
+        }
+    }
+
+    private class PendingTrace {
+
+        final long firstSeenNanos;
+        final List<SpanData> spans = new ArrayList<>(4);
+        boolean error;
+        long maxDurationNanos;
+        // Set once the local root has ended
+        long rootDurationNanos = -1;
+
+        PendingTrace(long firstSeenNanos) {
+            this.firstSeenNanos = firstSeenNanos;
+        }
+
+        void add(SpanData span) {
+            spans.add(span);
+            error |= span.getStatus().getStatusCode() == StatusCode.ERROR;
+            maxDurationNanos = Math.max(maxDurationNanos, span.getEndEpochNanos() - span.getStartEpochNanos());
+        }
+
+        Decision decide(String traceId) {
+            if (error) {
+                return Decision.ERROR;
+            }
+            // Without its root, the longest span seen stands in for the trace
+            long durationNanos = rootDurationNanos >= 0 ? rootDurationNanos : maxDurationNanos;
+            if (durationNanos >= slowThresholdNanos) {
+                return Decision.SLOW;
+            }
+            // Same idea as TraceIdRatioBasedSampler: the random low 64 bits of the trace ID
+            long random = Long.parseUnsignedLong(traceId, 16, 32, 16) & Long.MAX_VALUE;
+            return random < sampledUpperBound ? Decision.SAMPLED : Decision.DROPPED;
+        }
+    }
+
+    /**
+     * Counters shared by the exporters of one application, bound to /actuator/metrics:
+     * - tail.sampling.traces{decision=error|slow|sampled|dropped}
+     * - tail.sampling.traces.evicted - traces decided before their root ended (limits, decision-wait)
+     * - tail.sampling.spans{decision=kept|dropped}
+     * - tail.sampling.buffered.spans - spans waiting for a decision
+     */
+    public static class Stats implements MeterBinder {
+
+        private final Map<Decision, LongAdder> traces = new EnumMap<>(Decision.class);
+        private final LongAdder evicted = new LongAdder();
+        private final LongAdder keptSpans = new LongAdder();
+        private final LongAdder droppedSpans = new LongAdder();
+        private final AtomicLong buffered = new AtomicLong();
+
+        public Stats() {
+            for (Decision decision : Decision.values()) {
+                traces.put(decision, new LongAdder());
+            }
+        }
+
+        void traces(Decision decision, boolean wasEvicted) {
+            traces.get(decision).increment();
+            if (wasEvicted) {
+                evicted.increment();
+            }
+        }
+
+        void spans(boolean kept, int count) {
+            (kept ? keptSpans : droppedSpans).add(count);
+        }
+
+        @Override
+        public void bindTo(MeterRegistry registry) {
+            traces.forEach((decision, count) -> FunctionCounter.builder("tail.sampling.traces", count, LongAdder::sum)
+                    .description("Local traces by tail sampling decision")
+                    .tag("decision", decision.name().toLowerCase())
+                    .register(registry));
+            FunctionCounter.builder("tail.sampling.traces.evicted", evicted, LongAdder::sum)
+                    .description("Traces decided before their local root ended (buffer limits or decision-wait)")
+                    .register(registry);
+            FunctionCounter.builder("tail.sampling.spans", keptSpans, LongAdder::sum)
+                    .description("Spans by tail sampling decision")
+                    .tag("decision", "kept")
+                    .register(registry);
+            FunctionCounter.builder("tail.sampling.spans", droppedSpans, LongAdder::sum)
+                    .description("Spans by tail sampling decision")
+                    .tag("decision", "dropped")
+                    .register(registry);
+            Gauge.builder("tail.sampling.buffered.spans", buffered, AtomicLong::get)
+                    .description("Spans waiting for a tail sampling decision")
+                    .register(registry);
+        }
+    }
+}
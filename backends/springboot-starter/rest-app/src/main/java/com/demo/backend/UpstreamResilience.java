@@ -0,0 +1,126 @@
+package com.demo.backend;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and bulkhead around the upstream call (Resilience4j).
+ *
+ * A slow or failing upstream used to hold a Tomcat thread per request until the socket
+ * timeout. Now:
+ * - the bulkhead caps concurrent upstream calls; excess requests are rejected at once
+ *   instead of queueing for a pooled connection
+ * - the circuit breaker opens when too many recent calls failed or were slow, and then
+ *   rejects calls without touching the network until wait-duration-in-open-state has
+ *   passed and a few trial calls succeed (HALF_OPEN)
+ *
+ * Rejected calls throw CallNotPermittedException / BulkheadFullException, which
+ * BackendController turns into the usual 503.
+ *
+ * Tracing:
+ * - "upstream-call-rejected" event (reason=circuit-open|bulkhead-full) on rejected requests
+ * - "circuit-breaker-state-transition" event (from, to) on the span of the request whose
+ *   outcome caused the transition
+ *
+ * Metrics: resilience4j.circuitbreaker.* and resilience4j.bulkhead.* (name=upstream),
+ * e.g. resilience4j.circuitbreaker.state and resilience4j.circuitbreaker.not.permitted.calls.
+ */
+@Component
+public class UpstreamResilience {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamResilience.class);
+
+    private static final AttributeKey<String> REJECT_REASON = AttributeKey.stringKey("reason");
+    private static final AttributeKey<String> FROM_STATE = AttributeKey.stringKey("from");
+    private static final AttributeKey<String> TO_STATE = AttributeKey.stringKey("to");
+
+    private final boolean enabled;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public UpstreamResilience(
+            MeterRegistry meterRegistry,
+            @Value("${upstream.resilience.enabled:true}") boolean enabled,
+            @Value("${upstream.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${upstream.circuit-breaker.slow-call-duration-threshold:2s}") Duration slowCallDurationThreshold,
+            @Value("${upstream.circuit-breaker.slow-call-rate-threshold:50}") float slowCallRateThreshold,
+            @Value("${upstream.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${upstream.circuit-breaker.minimum-number-of-calls:20}") int minimumNumberOfCalls,
+            @Value("${upstream.circuit-breaker.wait-duration-in-open-state:10s}") Duration waitDurationInOpenState,
+            @Value("${upstream.circuit-breaker.permitted-calls-in-half-open-state:5}") int permittedCallsInHalfOpenState,
+            @Value("${upstream.bulkhead.max-concurrent-calls:100}") int maxConcurrentCalls,
+            @Value("${upstream.bulkhead.max-wait:0ms}") Duration maxWait) {
+        this.enabled = enabled;
+
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDurationThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(permittedCallsInHalfOpenState)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // A full bulkhead or a 4xx says nothing about upstream health
+                .ignoreExceptions(BulkheadFullException.class, HttpClientErrorException.class)
+                .build());
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(maxWait)
+                .build());
+
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker("upstream");
+        this.bulkhead = bulkheadRegistry.bulkhead("upstream");
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+
+        circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            CircuitBreaker.StateTransition transition = event.getStateTransition();
+            log.warn("Upstream circuit breaker {} -> {}", transition.getFromState(), transition.getToState());
+            // Published on the thread that recorded the triggering call
+            Span.current().addEvent("circuit-breaker-state-transition", Attributes.of(
+                    FROM_STATE, transition.getFromState().name(),
+                    TO_STATE, transition.getToState().name()));
+        });
+    }
+
+    /**
+     * Runs the upstream call inside the bulkhead and circuit breaker.
+     * Rejections are recorded on the given span and rethrown.
+     */
+    public <T> T call(Span span, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        try {
+            return CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, call)).get();
+        } catch (CallNotPermittedException e) {
+            span.addEvent("upstream-call-rejected", Attributes.of(REJECT_REASON, "circuit-open"));
+            throw e;
+        } catch (BulkheadFullException e) {
+            span.addEvent("upstream-call-rejected", Attributes.of(REJECT_REASON, "bulkhead-full"));
+            throw e;
+        }
+    }
+}
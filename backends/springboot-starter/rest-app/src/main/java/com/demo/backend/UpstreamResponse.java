@@ -0,0 +1,23 @@
+package com.demo.backend;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Body returned by the upstream's /api/backend_to_upstream.
+ *
+ * Binding to a record lets Jackson use a bean deserializer with known properties instead
+ * of building a LinkedHashMap per response. Properties the upstream adds later are
+ * ignored (Spring Boot disables FAIL_ON_UNKNOWN_PROPERTIES). receivedPayload is the
+ * caller's arbitrary JSON, so it stays a Map, and is omitted for GET and DELETE. With
+ * upstream.payload-digest.enabled the upstream sends receivedPayloadDigest instead.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UpstreamResponse(
+        String timestamp,
+        String message,
+        String service,
+        Map<String, Object> receivedPayload,
+        PayloadDigest receivedPayloadDigest) {
+}
@@ -0,0 +1,145 @@
+package com.demo.backend;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Optional in-process cache for idempotent upstream calls (upstream.cache.enabled=true).
+ *
+ * Only methods listed in upstream.cache.methods (GET by default) and requests without a
+ * payload are cached; everything else goes straight to the loader. Entries expire
+ * upstream.cache.ttl after they were loaded, and the cache holds at most
+ * upstream.cache.max-size entries.
+ *
+ * Stampede protection: the cache stores futures. The first miss for a key installs a
+ * future and calls the upstream on its own thread (so the RestTemplate client span
+ * stays a child of proxy-request); concurrent misses for the same key wait on that
+ * future instead of making their own call. A failed load is removed from the cache, so
+ * errors are never cached.
+ *
+ * Span attributes on the proxy-request span:
+ * - upstream.cache.hit       - true when the response came from the cache
+ * - upstream.cache.coalesced - true when the request waited on another request's load
+ *
+ * Metrics:
+ * - upstream.cache.requests{result=hit|miss|coalesced}
+ * - upstream.cache.evictions - entries removed because of size or TTL
+ * - upstream.cache.size      - current number of entries
+ */
+@Component
+public class UpstreamResponseCache {
+
+    private static final AttributeKey<Boolean> CACHE_HIT = AttributeKey.booleanKey("upstream.cache.hit");
+    private static final AttributeKey<Boolean> CACHE_COALESCED = AttributeKey.booleanKey("upstream.cache.coalesced");
+
+    private final boolean enabled;
+    private final Set<HttpMethod> methods = new HashSet<>();
+    private final AsyncCache<String, Object> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public UpstreamResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${upstream.cache.enabled:false}") boolean enabled,
+            @Value("${upstream.cache.methods:GET}") List<String> methods,
+            @Value("${upstream.cache.ttl:5s}") Duration ttl,
+            @Value("${upstream.cache.max-size:1000}") long maxSize) {
+        this.enabled = enabled;
+        for (String method : methods) {
+            if (!method.isBlank()) {
+                this.methods.add(HttpMethod.valueOf(method.trim().toUpperCase()));
+            }
+        }
+
+        Counter evictions = Counter.builder("upstream.cache.evictions")
+                .description("Cached upstream responses removed because of size or TTL")
+                .register(meterRegistry);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .removalListener((key, value, cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .buildAsync();
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+        Gauge.builder("upstream.cache.size", cache, c -> c.synchronous().estimatedSize())
+                .description("Cached upstream responses")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("upstream.cache.requests")
+                .description("Upstream calls served through the response cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached upstream body for this request, or calls the loader.
+     * Runtime exceptions thrown by the loader (e.g. RestClientException) are rethrown
+     * unchanged, including to requests that were waiting on the same load.
+     */
+    public Object get(HttpMethod method, String url, Object payload, Span span, Supplier<Object> loader) {
+        if (!enabled || payload != null || !methods.contains(method)) {
+            return loader.get();
+        }
+
+        String key = method.name() + " " + url;
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = cache.asMap().putIfAbsent(key, load);
+
+        if (existing == null) {
+            misses.increment();
+            span.setAttribute(CACHE_HIT, false);
+            try {
+                Object body = loader.get();
+                load.complete(body);
+                return body;
+            } catch (RuntimeException e) {
+                // Waiters see the same failure; Caffeine drops the failed future
+                load.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        if (existing.isDone()) {
+            hits.increment();
+            span.setAttribute(CACHE_HIT, true);
+        } else {
+            coalesced.increment();
+            span.setAttribute(CACHE_HIT, false);
+            span.setAttribute(CACHE_COALESCED, true);
+        }
+        try {
+            return existing.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.demo.backend;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Encoding of request and response bodies on the backend-to-upstream hop
+ * (upstream.wire-format).
+ *
+ * JSON  - application/json, the default
+ * CBOR  - application/cbor (RFC 8949), via jackson-dataformat-cbor
+ * SMILE - application/x-jackson-smile, Jackson's binary JSON, via jackson-dataformat-smile
+ *
+ * The binary formats carry the same data model as JSON, so the same Jackson bindings
+ * (UpstreamResponse, Map payloads) apply; they skip number and string escaping and
+ * are smaller on the wire, which matters most for large payloads. The upstream picks
+ * the format from Content-Type and Accept. The converters are set up in WireFormatConfig.
+ */
+public enum WireFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(new MediaType("application", "x-jackson-smile"));
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+}
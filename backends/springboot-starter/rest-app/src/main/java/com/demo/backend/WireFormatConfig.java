@@ -0,0 +1,36 @@
+package com.demo.backend;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR and Smile message converters with the application's Jackson settings (see WireFormat).
+ *
+ * With jackson-dataformat-cbor and -smile on the classpath, Spring's default converter
+ * lists (RestTemplate and Spring MVC) already contain CBOR and Smile converters, built on
+ * a plain ObjectMapper. Spring Boot's HttpMessageConverters puts a converter bean directly
+ * ahead of the default converter of the same class. So these beans are the CBOR and Smile
+ * converters the RestTemplate (RestTemplateBuilder) and Spring MVC pick; the defaults
+ * behind them are never reached.
+ *
+ * The JSON converter stays ahead of them. Clients of the backend get JSON unless they ask
+ * for application/cbor or application/x-jackson-smile in Accept.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder jacksonBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(jacksonBuilder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder jacksonBuilder) {
+        return new MappingJackson2SmileHttpMessageConverter(jacksonBuilder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,96 @@
+package com.demo.backend;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        // smoothing=1 applies each sample in full, so one request moves the limit
+        return new AdaptiveConcurrencyLimiter(OpenTelemetry.noop(), true, initialLimit, 1, 200, 1.5, 1.0);
+    }
+
+    @Test
+    void rejectsOverTheLimitUntilAPermitIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire(Span.getInvalid());
+        assertThat(limiter.tryAcquire(Span.getInvalid())).isNotNull();
+        assertThat(limiter.tryAcquire(Span.getInvalid())).isNull();
+
+        first.onIgnore();
+        assertThat(limiter.tryAcquire(Span.getInvalid())).isNotNull();
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void successOfAnUpstreamCallGrowsTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        // At least half of the limit in use, so the sample is not application-limited
+        limiter.tryAcquire(Span.getInvalid());
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(Span.getInvalid());
+
+        permit.markUpstreamCall();
+        permit.onSuccess();
+
+        // First sample: rtt == longRtt, gradient 1, limit 4 + sqrt(4)
+        assertThat(limiter.getLimit()).isEqualTo(6);
+    }
+
+    @Test
+    void droppedUpstreamCallCutsTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(Span.getInvalid());
+
+        permit.markUpstreamCall();
+        permit.onDropped();
+
+        assertThat(limiter.getLimit()).isEqualTo(18);
+    }
+
+    @Test
+    void outcomesWithoutAnUpstreamCallOnlyReleaseThePermit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        AdaptiveConcurrencyLimiter.Permit success = limiter.tryAcquire(Span.getInvalid());
+        AdaptiveConcurrencyLimiter.Permit dropped = limiter.tryAcquire(Span.getInvalid());
+        AdaptiveConcurrencyLimiter.Permit ignored = limiter.tryAcquire(Span.getInvalid());
+        limiter.tryAcquire(Span.getInvalid());
+
+        // Cache hits and SingleFlight followers never call markUpstreamCall
+        success.onSuccess();
+        dropped.onDropped();
+        ignored.onIgnore();
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(Span.getInvalid())).isNotNull();
+        }
+        assertThat(limiter.tryAcquire(Span.getInvalid())).isNull();
+    }
+
+    @Test
+    void onlyTheFirstOutcomeCounts() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(Span.getInvalid());
+        permit.markUpstreamCall();
+
+        permit.onIgnore();
+        permit.onDropped();
+        permit.onDropped();
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void disabledLimiterNeverRejects() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(OpenTelemetry.noop(), false, 1, 1, 1, 1.5, 0.2);
+        for (int i = 0; i < 10; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(Span.getInvalid());
+            permit.markUpstreamCall();
+            permit.onDropped();
+        }
+        assertThat(limiter.tryAcquire(Span.getInvalid())).isNotNull();
+    }
+}
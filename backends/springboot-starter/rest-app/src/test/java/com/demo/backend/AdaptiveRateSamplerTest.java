@@ -0,0 +1,123 @@
+package com.demo.backend;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import io.opentelemetry.sdk.trace.samplers.SamplingDecision;
+import io.opentelemetry.sdk.trace.samplers.SamplingResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AdaptiveRateSamplerTest {
+
+    private static final String TRACE_ID = "0af7651916cd43dd8448eb211c80319c";
+
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        }
+    }
+
+    // Wired as AdaptiveSamplerConfig does: parent-based, with the span counter as a processor
+    private Tracer tracer(AdaptiveRateSampler sampler) {
+        tracerProvider = SdkTracerProvider.builder()
+                .setSampler(Sampler.parentBased(sampler))
+                .addSpanProcessor(sampler.spanCounter())
+                .build();
+        return tracerProvider.get("test");
+    }
+
+    private static SamplingResult sampleRoot(AdaptiveRateSampler sampler) {
+        return sampler.shouldSample(Context.root(), TRACE_ID, "root", SpanKind.SERVER, Attributes.empty(), List.of());
+    }
+
+    private static double decisions(MeterRegistry registry, String decision) {
+        return registry.get("tracing.sampler.decisions").tag("decision", decision).functionCounter().count();
+    }
+
+    @Test
+    void samplesRootsWithTheRatioInEffect() {
+        AdaptiveRateSampler sampler = new AdaptiveRateSampler(100, Duration.ofSeconds(10));
+
+        SamplingResult result = sampleRoot(sampler);
+
+        assertThat(result.getDecision()).isEqualTo(SamplingDecision.RECORD_AND_SAMPLE);
+        assertThat(result.getAttributes().get(AttributeKey.doubleKey("sampler.ratio"))).isEqualTo(1.0);
+        assertThat(sampler.getRatio()).isEqualTo(1.0);
+    }
+
+    @Test
+    void rateLimitsRootsOnceTheIntervalBudgetIsSpent() {
+        // Budget: 1 span/s * 10 s = 10 spans per interval
+        AdaptiveRateSampler sampler = new AdaptiveRateSampler(1, Duration.ofSeconds(10));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        sampler.bindTo(registry);
+        Tracer tracer = tracer(sampler);
+
+        for (int i = 0; i < 10; i++) {
+            Span span = tracer.spanBuilder("root").startSpan();
+            assertThat(span.getSpanContext().isSampled()).isTrue();
+            span.end();
+        }
+        Span limited = tracer.spanBuilder("root").startSpan();
+
+        assertThat(limited.getSpanContext().isSampled()).isFalse();
+        assertThat(decisions(registry, "sampled")).isEqualTo(10);
+        assertThat(decisions(registry, "rate_limited")).isEqualTo(1);
+        assertThat(decisions(registry, "dropped")).isZero();
+    }
+
+    @Test
+    void lowersTheRatioWhenSpanRateExceedsTheTargetAndRecoversWhenIdle() throws InterruptedException {
+        AdaptiveRateSampler sampler = new AdaptiveRateSampler(1, Duration.ofMillis(50));
+        MeterRegistry registry = new SimpleMeterRegistry();
+        sampler.bindTo(registry);
+        Tracer tracer = tracer(sampler);
+
+        // One sampled root with 99 children that follow it: far above 1 span/s
+        Span root = tracer.spanBuilder("root").startSpan();
+        Context parent = Context.root().with(root);
+        for (int i = 0; i < 99; i++) {
+            tracer.spanBuilder("child").setParent(parent).startSpan().end();
+        }
+        root.end();
+
+        Thread.sleep(100);
+        sampleRoot(sampler);
+        // At most x0.1 per interval
+        assertThat(sampler.getRatio()).isCloseTo(0.1, within(1e-9));
+        assertThat(registry.get("tracing.sampler.ratio").gauge().value()).isCloseTo(0.1, within(1e-9));
+
+        // No spans ended in the next interval: the ratio doubles back up
+        Thread.sleep(100);
+        sampleRoot(sampler);
+        assertThat(sampler.getRatio()).isCloseTo(0.2, within(1e-9));
+    }
+
+    @Test
+    void describesItselfOnTheResource() {
+        AdaptiveRateSampler sampler = new AdaptiveRateSampler(50, Duration.ofSeconds(1));
+
+        Attributes attributes = sampler.resource().getAttributes();
+
+        assertThat(attributes.get(AttributeKey.stringKey("sampler.type"))).isEqualTo("adaptive-rate");
+        assertThat(attributes.get(AttributeKey.doubleKey("sampler.target_spans_per_second"))).isEqualTo(50.0);
+    }
+}
@@ -0,0 +1,39 @@
+package com.demo.backend;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Invalid batch items, including null elements of the array, get a 400 item result
+ * without failing the batch or calling the upstream.
+ */
+@SpringBootTest(properties = "otel.sdk.disabled=true")
+class BatchRequestTest {
+
+    @Autowired
+    private BackendController controller;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void invalidItemsGet400Results() {
+        List<Map<String, Object>> items = Arrays.asList(null, Map.of("method", "NOPE"), Map.of("payload", "text"));
+
+        ResponseEntity<Map<String, Object>> response = controller.batchRequest(items);
+
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.getBody().get("results");
+        assertThat(results).hasSize(3).allSatisfy(result -> {
+            assertThat(result.get("status")).isEqualTo(400);
+            assertThat((Map<String, Object>) result.get("body"))
+                    .containsEntry("error", "Invalid batch item: method must be an HTTP method and payload an object");
+        });
+        assertThat(results.get(0)).containsEntry("index", 0);
+    }
+}
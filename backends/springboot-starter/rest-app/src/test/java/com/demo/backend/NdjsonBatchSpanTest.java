@@ -0,0 +1,142 @@
+package com.demo.backend;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The proxy-batch span of an NDJSON batch ends exactly once: after the last line, or
+ * when the async request completes without the body having run.
+ */
+@SpringBootTest(properties = {
+        "otel.traces.exporter=none",
+        "otel.metrics.exporter=none",
+        "otel.logs.exporter=none",
+        "otel.exporter.otlp.headers=test=true",
+        "otel.resource.attributes=env=test"
+})
+class NdjsonBatchSpanTest {
+
+    // A null element is an invalid item, answered without calling the upstream
+    private static final List<Map<String, Object>> ITEMS = Arrays.asList((Map<String, Object>) null);
+
+    @Autowired
+    private BackendController controller;
+
+    @Autowired
+    private BatchSpans batchSpans;
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        BatchSpans batchSpans() {
+            return new BatchSpans();
+        }
+
+        @Bean
+        AutoConfigurationCustomizerProvider batchSpansCustomizer(BatchSpans batchSpans) {
+            return customizer -> customizer.addTracerProviderCustomizer(
+                    (builder, config) -> builder.addSpanProcessor(batchSpans));
+        }
+    }
+
+    /**
+     * Collects the proxy-batch spans as they end.
+     */
+    static class BatchSpans implements SpanProcessor {
+
+        final List<SpanData> ended = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return false;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+            if (span.getName().equals("proxy-batch")) {
+                ended.add(span.toSpanData());
+            }
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return true;
+        }
+    }
+
+    @BeforeEach
+    void clear() {
+        batchSpans.ended.clear();
+    }
+
+    private static MockHttpServletRequest asyncRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        WebAsyncUtils.getAsyncManager(request)
+                .setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+        return request;
+    }
+
+    @Test
+    void spanEndsWhenTheBodyNeverRuns() throws Exception {
+        MockHttpServletRequest request = asyncRequest();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        // An executor that drops the task, as when the client is gone before it starts
+        asyncManager.setTaskExecutor(new ConcurrentTaskExecutor(task -> { }));
+
+        controller.batchRequestNdjson(ITEMS, request);
+        assertThat(batchSpans.ended).isEmpty();
+
+        // What Spring MVC does with the returned StreamingResponseBody, then the request ends
+        asyncManager.startCallableProcessing(() -> null);
+        request.getAsyncContext().complete();
+
+        assertThat(batchSpans.ended).singleElement()
+                .satisfies(span -> assertThat(span.getStatus().getStatusCode()).isEqualTo(StatusCode.ERROR));
+    }
+
+    @Test
+    void spanEndsOnceWhenTheBodyRuns() throws Exception {
+        MockHttpServletRequest request = asyncRequest();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+
+        StreamingResponseBody body = controller.batchRequestNdjson(ITEMS, request).getBody();
+        body.writeTo(new ByteArrayOutputStream());
+        asyncManager.startCallableProcessing(() -> null);
+        request.getAsyncContext().complete();
+
+        assertThat(batchSpans.ended).singleElement()
+                .satisfies(span -> assertThat(span.getStatus().getStatusCode()).isNotEqualTo(StatusCode.ERROR));
+    }
+}
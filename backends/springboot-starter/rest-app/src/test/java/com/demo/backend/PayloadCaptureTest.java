@@ -0,0 +1,90 @@
+package com.demo.backend;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadCaptureTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SdkTracerProvider tracerProvider = SdkTracerProvider.builder().build();
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.shutdown();
+    }
+
+    private Attributes capture(int maxLength, Map<String, Object> payload) {
+        PayloadCapture capture = new PayloadCapture(meterRegistry, true, maxLength, true, List.of(), 1.0);
+        Span span = tracerProvider.get("test").spanBuilder("proxy-request").startSpan();
+        capture.record(span, payload);
+        span.end();
+        return ((ReadableSpan) span).toSpanData().getAttributes();
+    }
+
+    private static Map<String, Object> nestedPayload() {
+        Map<String, Object> inner = new LinkedHashMap<>();
+        inner.put("name", "café");
+        inner.put("tags", List.of("a", "b"));
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", 42);
+        payload.put("item", inner);
+        payload.put("note", null);
+        return payload;
+    }
+
+    @Test
+    void rendersNestedValuesLikeToString() {
+        Map<String, Object> payload = nestedPayload();
+        String expected = payload.toString();
+
+        Attributes attributes = capture(1000, payload);
+
+        assertThat(attributes.get(AttributeKey.stringKey("request.payload"))).isEqualTo(expected);
+        assertThat(attributes.get(AttributeKey.longKey("request.payload.size")))
+                .isEqualTo(expected.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(attributes.get(AttributeKey.booleanKey("request.payload.truncated"))).isNull();
+        assertThat(meterRegistry.counter("payload.capture.bytes.saved").count()).isZero();
+    }
+
+    @Test
+    void truncatedCaptureKeepsFullSizeAndHash() {
+        Map<String, Object> payload = nestedPayload();
+        String expected = payload.toString();
+        int fullBytes = expected.getBytes(StandardCharsets.UTF_8).length;
+
+        Attributes truncated = capture(10, payload);
+        Attributes full = capture(1000, payload);
+
+        assertThat(truncated.get(AttributeKey.stringKey("request.payload"))).isEqualTo(expected.substring(0, 10));
+        assertThat(truncated.get(AttributeKey.longKey("request.payload.size"))).isEqualTo(fullBytes);
+        assertThat(truncated.get(AttributeKey.booleanKey("request.payload.truncated"))).isTrue();
+        assertThat(truncated.get(AttributeKey.stringKey("request.payload.sha256")))
+                .isEqualTo(full.get(AttributeKey.stringKey("request.payload.sha256")));
+        // The first 10 characters are ASCII, one byte each
+        assertThat(meterRegistry.counter("payload.capture.bytes.saved").count()).isEqualTo(fullBytes - 10);
+    }
+
+    @Test
+    void bytesSavedCountsUtf8Bytes() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("k", "éééé");
+
+        capture(3, payload);
+
+        // "{k=" is kept; "éééé}" is 4 * 2 + 1 bytes
+        assertThat(meterRegistry.counter("payload.capture.bytes.saved").count()).isEqualTo(9);
+    }
+}
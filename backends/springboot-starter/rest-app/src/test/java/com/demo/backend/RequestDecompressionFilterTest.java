@@ -0,0 +1,99 @@
+package com.demo.backend;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class RequestDecompressionFilterTest {
+
+    private static final String BODY = "{\"message\":\"hello\"}";
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new EchoController())
+            .addFilters(new RequestDecompressionFilter(DataSize.ofBytes(1024)))
+            .build();
+
+    @RestController
+    static class EchoController {
+
+        // Echoes the body, and the Content-Encoding the controller sees
+        @PostMapping("/echo")
+        Map<String, Object> echo(@RequestBody Map<String, Object> body,
+                                 @RequestHeader(value = "Content-Encoding", required = false) String encoding) {
+            Map<String, Object> response = new HashMap<>(body);
+            response.put("encoding", encoding);
+            return response;
+        }
+    }
+
+    private static byte[] compress(String text, boolean gzip) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private ResultActions postEncoded(String encoding, byte[] body) throws Exception {
+        return mockMvc.perform(post("/echo")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Content-Encoding", encoding)
+                .content(body));
+    }
+
+    @Test
+    void inflatesAGzipBody() throws Exception {
+        postEncoded("gzip", compress(BODY, true))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("hello"))
+                .andExpect(jsonPath("$.encoding").doesNotExist());
+    }
+
+    @Test
+    void inflatesADeflateBody() throws Exception {
+        postEncoded("deflate", compress(BODY, false))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("hello"));
+    }
+
+    @Test
+    void unknownEncodingGets415() throws Exception {
+        postEncoded("br", BODY.getBytes(StandardCharsets.UTF_8))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void corruptBodyGets400() throws Exception {
+        byte[] notCompressed = BODY.getBytes(StandardCharsets.UTF_8);
+
+        postEncoded("gzip", notCompressed).andExpect(status().isBadRequest());
+        postEncoded("deflate", notCompressed).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bodyInflatingPastMaxSizeGets400() throws Exception {
+        // Compresses to a few dozen bytes, inflates past the 1 KB limit
+        String large = "{\"message\":\"" + "x".repeat(4096) + "\"}";
+
+        postEncoded("gzip", compress(large, true)).andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,134 @@
+package com.demo.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final String TARGET = "http://upstream/api/backend_to_upstream";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private SingleFlight singleFlight(boolean enabled) {
+        return new SingleFlight(new ObjectMapper(), meterRegistry, enabled, List.of("GET", "PUT", "DELETE"));
+    }
+
+    // Counts invocations and returns a future the test completes
+    private Supplier<CompletableFuture<Object>> call(CompletableFuture<Object> result) {
+        return () -> {
+            calls.incrementAndGet();
+            return result;
+        };
+    }
+
+    private double requests(String role) {
+        return meterRegistry.get("upstream.single_flight.requests").tag("role", role).counter().count();
+    }
+
+    @Test
+    void waiterSharesTheLeadersResponse() {
+        SingleFlight singleFlight = singleFlight(true);
+        CompletableFuture<Object> upstream = new CompletableFuture<>();
+
+        CompletableFuture<Object> leader = singleFlight.execute(
+                HttpMethod.GET, TARGET, null, Span.getInvalid(), call(upstream));
+        CompletableFuture<Object> waiter = singleFlight.execute(
+                HttpMethod.GET, TARGET, null, Span.getInvalid(), call(new CompletableFuture<>()));
+        assertThat(waiter).isNotDone();
+
+        Map<String, Object> body = Map.of("message", "ok");
+        upstream.complete(body);
+
+        assertThat(leader.join()).isSameAs(body);
+        assertThat(waiter.join()).isSameAs(body);
+        assertThat(calls).hasValue(1);
+        assertThat(requests("leader")).isEqualTo(1);
+        assertThat(requests("waiter")).isEqualTo(1);
+    }
+
+    @Test
+    void waiterReceivesTheLeadersError() {
+        SingleFlight singleFlight = singleFlight(true);
+        CompletableFuture<Object> upstream = new CompletableFuture<>();
+
+        CompletableFuture<Object> leader = singleFlight.execute(
+                HttpMethod.GET, TARGET, null, Span.getInvalid(), call(upstream));
+        CompletableFuture<Object> waiter = singleFlight.execute(
+                HttpMethod.GET, TARGET, null, Span.getInvalid(), call(new CompletableFuture<>()));
+
+        IllegalStateException error = new IllegalStateException("upstream down");
+        upstream.completeExceptionally(error);
+
+        assertThatThrownBy(leader::join).isInstanceOf(CompletionException.class).hasRootCause(error);
+        assertThatThrownBy(waiter::join).isInstanceOf(CompletionException.class).hasRootCause(error);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void callThatThrowsCompletesExceptionally() {
+        SingleFlight singleFlight = singleFlight(true);
+        IllegalStateException error = new IllegalStateException("rejected");
+
+        CompletableFuture<Object> result = singleFlight.execute(HttpMethod.GET, TARGET, null, Span.getInvalid(), () -> {
+            throw error;
+        });
+
+        assertThatThrownBy(result::join).hasRootCause(error);
+        // The key was released, so the next request makes its own call
+        singleFlight.execute(HttpMethod.GET, TARGET, null, Span.getInvalid(),
+                call(CompletableFuture.completedFuture("ok")));
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void keyIsReleasedOnceTheCallCompletes() {
+        SingleFlight singleFlight = singleFlight(true);
+
+        singleFlight.execute(HttpMethod.GET, TARGET, null, Span.getInvalid(),
+                call(CompletableFuture.completedFuture("first")));
+        Object second = singleFlight.execute(HttpMethod.GET, TARGET, null, Span.getInvalid(),
+                call(CompletableFuture.completedFuture("second"))).join();
+
+        assertThat(second).isEqualTo("second");
+        assertThat(calls).hasValue(2);
+        assertThat(requests("waiter")).isZero();
+    }
+
+    @Test
+    void differentPayloadsAreNotShared() {
+        SingleFlight singleFlight = singleFlight(true);
+
+        singleFlight.execute(HttpMethod.PUT, TARGET, Map.of("id", 1), Span.getInvalid(), call(new CompletableFuture<>()));
+        singleFlight.execute(HttpMethod.PUT, TARGET, Map.of("id", 2), Span.getInvalid(), call(new CompletableFuture<>()));
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void postAndDisabledCoalescingCallEveryTime() {
+        SingleFlight enabled = singleFlight(true);
+        enabled.execute(HttpMethod.POST, TARGET, null, Span.getInvalid(), call(new CompletableFuture<>()));
+        enabled.execute(HttpMethod.POST, TARGET, null, Span.getInvalid(), call(new CompletableFuture<>()));
+        assertThat(calls).hasValue(2);
+
+        SingleFlight disabled = singleFlight(false);
+        disabled.execute(HttpMethod.GET, TARGET, null, Span.getInvalid(), call(new CompletableFuture<>()));
+        disabled.execute(HttpMethod.GET, TARGET, null, Span.getInvalid(), call(new CompletableFuture<>()));
+        assertThat(calls).hasValue(4);
+    }
+}
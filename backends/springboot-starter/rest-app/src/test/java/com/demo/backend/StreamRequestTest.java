@@ -0,0 +1,62 @@
+package com.demo.backend;
+
+import io.opentelemetry.api.trace.Span;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "otel.sdk.disabled=true",
+        "upstream.stream.max-count=1000",
+        "upstream.concurrency-limit.enabled=true",
+        "upstream.concurrency-limit.initial-limit=1",
+        "upstream.concurrency-limit.min-limit=1",
+        "upstream.concurrency-limit.max-limit=1"
+})
+class StreamRequestTest {
+
+    @Autowired
+    private BackendController controller;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @Test
+    void rejectsCountsOutOfRange() {
+        for (int count : new int[] {-1, 0, 1001}) {
+            assertThatThrownBy(() -> controller.streamRequest(count, new MockHttpServletRequest()))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    @Test
+    void releasesThePermitWhenTheBodyNeverRuns() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+        // An executor that drops the task, as when the client is gone before it starts
+        asyncManager.setTaskExecutor(new ConcurrentTaskExecutor(task -> { }));
+
+        controller.streamRequest(1, request);
+        assertThat(limiter.tryAcquire(Span.getInvalid())).isNull();
+
+        // What Spring MVC does with the returned StreamingResponseBody, then the request ends
+        asyncManager.startCallableProcessing(() -> null);
+        request.getAsyncContext().complete();
+
+        assertThat(limiter.tryAcquire(Span.getInvalid())).isNotNull();
+    }
+}
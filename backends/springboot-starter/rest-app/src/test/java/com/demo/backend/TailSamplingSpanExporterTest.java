@@ -0,0 +1,191 @@
+package com.demo.backend;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TailSamplingSpanExporterTest {
+
+    private static final Duration SLOW = Duration.ofSeconds(1);
+    private static final long START = TimeUnit.SECONDS.toNanos(1_700_000_000L);
+
+    private final RecordingExporter exported = new RecordingExporter();
+    private final TailSamplingSpanExporter.Stats stats = new TailSamplingSpanExporter.Stats();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TailSamplingSpanExporter exporter;
+    private SdkTracerProvider tracerProvider;
+    private Tracer tracer;
+
+    // SimpleSpanProcessor exports each span as it ends, the worst case for the buffer
+    private void start(double successRatio, int maxTraces) {
+        exporter = new TailSamplingSpanExporter(
+                exported, stats, SLOW, successRatio, maxTraces, 1000, Duration.ofMinutes(1));
+        stats.bindTo(meterRegistry);
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        tracer = tracerProvider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.shutdown().join(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Span root() {
+        return tracer.spanBuilder("root").setNoParent().setStartTimestamp(START, TimeUnit.NANOSECONDS).startSpan();
+    }
+
+    private Span child(Span parent) {
+        return tracer.spanBuilder("child").setParent(Context.root().with(parent))
+                .setStartTimestamp(START, TimeUnit.NANOSECONDS).startSpan();
+    }
+
+    private static void end(Span span, Duration duration) {
+        span.end(START + duration.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private double traces(String decision) {
+        return meterRegistry.get("tail.sampling.traces").tag("decision", decision).functionCounter().count();
+    }
+
+    private double spans(String decision) {
+        return meterRegistry.get("tail.sampling.spans").tag("decision", decision).functionCounter().count();
+    }
+
+    @Test
+    void keepsATraceWithAnErrorSpan() {
+        start(0, 100);
+        Span root = root();
+        Span child = child(root);
+        child.setStatus(StatusCode.ERROR, "upstream down");
+        end(child, Duration.ofMillis(5));
+        assertThat(exported.spans).isEmpty();
+
+        end(root, Duration.ofMillis(10));
+
+        assertThat(exported.names()).containsExactly("child", "root");
+        assertThat(traces("error")).isEqualTo(1);
+        assertThat(spans("kept")).isEqualTo(2);
+    }
+
+    @Test
+    void keepsATraceWithASlowRoot() {
+        start(0, 100);
+        Span root = root();
+        end(child(root), Duration.ofMillis(5));
+        end(root, SLOW);
+
+        assertThat(exported.names()).containsExactly("child", "root");
+        assertThat(traces("slow")).isEqualTo(1);
+    }
+
+    @Test
+    void dropsFastSuccessesOutsideTheRatio() {
+        start(0, 100);
+        Span root = root();
+        end(child(root), Duration.ofMillis(5));
+        end(root, Duration.ofMillis(10));
+
+        assertThat(exported.spans).isEmpty();
+        assertThat(traces("dropped")).isEqualTo(1);
+        assertThat(spans("dropped")).isEqualTo(2);
+        assertThat(meterRegistry.get("tail.sampling.buffered.spans").gauge().value()).isZero();
+    }
+
+    @Test
+    void keepsFastSuccessesWithinTheRatio() {
+        start(1, 100);
+        Span root = root();
+        end(root, Duration.ofMillis(10));
+
+        assertThat(exported.names()).containsExactly("root");
+        assertThat(traces("sampled")).isEqualTo(1);
+    }
+
+    @Test
+    void spanEndingAfterItsRootFollowsTheDecision() {
+        start(0, 100);
+        Span root = root();
+        Span late = child(root);
+        end(root, Duration.ofMillis(10));
+        end(late, Duration.ofMillis(20));
+
+        assertThat(exported.spans).isEmpty();
+        assertThat(spans("dropped")).isEqualTo(2);
+        assertThat(traces("dropped")).isEqualTo(1);
+    }
+
+    @Test
+    void evictsTheOldestTraceOverMaxTraces() {
+        start(0, 1);
+        // Roots never end, so only the trace limit decides these traces
+        Span first = child(root());
+        first.setStatus(StatusCode.ERROR);
+        end(first, Duration.ofMillis(5));
+        end(child(root()), Duration.ofMillis(5));
+
+        assertThat(exported.spans).hasSize(1);
+        assertThat(meterRegistry.get("tail.sampling.traces.evicted").functionCounter().count()).isEqualTo(1);
+        assertThat(traces("error")).isEqualTo(1);
+    }
+
+    @Test
+    void flushDecidesPendingTraces() {
+        start(0, 100);
+        Span slow = child(root());
+        end(slow, SLOW);
+        assertThat(exported.spans).isEmpty();
+
+        exporter.flush().join(10, TimeUnit.SECONDS);
+
+        assertThat(exported.names()).containsExactly("child");
+        assertThat(traces("slow")).isEqualTo(1);
+        assertThat(meterRegistry.get("tail.sampling.traces.evicted").functionCounter().count()).isEqualTo(1);
+    }
+
+    private static class RecordingExporter implements SpanExporter {
+
+        final List<SpanData> spans = new ArrayList<>();
+
+        List<String> names() {
+            return spans.stream().map(SpanData::getName).toList();
+        }
+
+        @Override
+        public synchronized CompletableResultCode export(Collection<SpanData> batch) {
+            spans.addAll(batch);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.demo.backend;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @Test
+    void notRegisteredByDefault() {
+        runner.run(context -> assertThat(context)
+                .doesNotHaveBean(VirtualThreadConfig.VirtualThreadExecutorCustomizer.class));
+    }
+
+    @Test
+    @DisabledIf("virtualThreadsAvailable")
+    void failsStartupWithoutVirtualThreads() {
+        runner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> assertThat(context).getFailure()
+                        .hasRootCauseInstanceOf(NoSuchMethodException.class)
+                        .hasMessageContaining("requires Java 21+"));
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsAvailable")
+    void shutsDownTheExecutorWithTheContext() {
+        AtomicReference<ExecutorService> executor = new AtomicReference<>();
+        runner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> executor.set(context
+                        .getBean(VirtualThreadConfig.VirtualThreadExecutorCustomizer.class).getExecutor()));
+
+        assertThat(executor.get().isShutdown()).isTrue();
+    }
+}
@@ -0,0 +1,158 @@
+package com.demo.backend;
+
+import com.sun.net.httpserver.HttpServer;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.autoconfigure.spi.AutoConfigurationCustomizerProvider;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The server span of a request and the upstream call share one trace: the traceparent
+ * header the upstream receives carries the server span's trace ID. On Java 21+ the
+ * backend runs with spring.threads.virtual.enabled=true, so this also checks that the
+ * server span is started on a virtual thread of VirtualThreadConfig's executor; on older
+ * runtimes requests run on the platform worker pool and that assertion is skipped.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "otel.traces.exporter=none",
+        "otel.metrics.exporter=none",
+        "otel.logs.exporter=none",
+        "otel.exporter.otlp.headers=test=true",
+        "otel.resource.attributes=env=test"
+})
+class VirtualThreadTracePropagationTest {
+
+    private static final AtomicReference<String> upstreamTraceparent = new AtomicReference<>();
+    private static final HttpServer upstream = startUpstream();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private ServerSpans serverSpans;
+
+    private static HttpServer startUpstream() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/backend_to_upstream", exchange -> {
+                upstreamTraceparent.set(exchange.getRequestHeaders().getFirst("traceparent"));
+                byte[] body = "{\"message\":\"ok\",\"service\":\"upstream\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("upstream.service.url", () -> "http://localhost:" + upstream.getAddress().getPort());
+        registry.add("spring.threads.virtual.enabled", VirtualThreadConfigTest::virtualThreadsAvailable);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        ServerSpans serverSpans() {
+            return new ServerSpans();
+        }
+
+        @Bean
+        AutoConfigurationCustomizerProvider serverSpansCustomizer(ServerSpans serverSpans) {
+            return customizer -> customizer.addTracerProviderCustomizer(
+                    (builder, config) -> builder.addSpanProcessor(serverSpans));
+        }
+    }
+
+    /**
+     * Remembers the trace ID of the last server span and the thread it started on.
+     */
+    static class ServerSpans implements SpanProcessor {
+
+        volatile String traceId;
+        volatile Thread thread;
+
+        @Override
+        public void onStart(Context parentContext, ReadWriteSpan span) {
+            if (span.getKind() == SpanKind.SERVER) {
+                traceId = span.getSpanContext().getTraceId();
+                thread = Thread.currentThread();
+            }
+        }
+
+        @Override
+        public boolean isStartRequired() {
+            return true;
+        }
+
+        @Override
+        public void onEnd(ReadableSpan span) {
+        }
+
+        @Override
+        public boolean isEndRequired() {
+            return false;
+        }
+    }
+
+    @Test
+    void serverSpanTraceIdReachesTheUpstream() throws ReflectiveOperationException {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/frontend_to_backend", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(serverSpans.traceId).isNotNull();
+        assertThat(upstreamTraceparent.get()).startsWith("00-" + serverSpans.traceId + "-");
+
+        if (VirtualThreadConfigTest.virtualThreadsAvailable()) {
+            assertThat((Boolean) Thread.class.getMethod("isVirtual").invoke(serverSpans.thread)).isTrue();
+        }
+    }
+
+    @Test
+    void requestsRunOnTheVirtualThreadExecutor() {
+        assumeTrue(VirtualThreadConfigTest.virtualThreadsAvailable(), "virtual threads need Java 21+");
+
+        Connector connector = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+        assertThat(connector.getProtocolHandler().getExecutor())
+                .isSameAs(context.getBean(VirtualThreadConfig.VirtualThreadExecutorCustomizer.class).getExecutor());
+    }
+}
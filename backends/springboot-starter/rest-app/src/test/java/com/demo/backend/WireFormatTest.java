@@ -0,0 +1,117 @@
+package com.demo.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With upstream.wire-format=cbor the payload goes to the upstream as CBOR and the CBOR
+ * response is read back, through WireFormatConfig's converter. The stub upstream decodes
+ * and encodes like the upstream service: the payload is echoed as receivedPayload.
+ */
+@SpringBootTest(properties = {
+        "otel.sdk.disabled=true",
+        "upstream.wire-format=cbor"
+})
+class WireFormatTest {
+
+    private static final ObjectMapper CBOR = new ObjectMapper(new CBORFactory());
+
+    private static final AtomicReference<String> upstreamContentType = new AtomicReference<>();
+    private static final AtomicReference<String> upstreamAccept = new AtomicReference<>();
+    private static final HttpServer upstream = startUpstream();
+
+    @Autowired
+    private BackendController controller;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @SuppressWarnings("unchecked")
+    private static HttpServer startUpstream() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/api/backend_to_upstream", exchange -> {
+                upstreamContentType.set(exchange.getRequestHeaders().getFirst("Content-Type"));
+                upstreamAccept.set(exchange.getRequestHeaders().getFirst("Accept"));
+                Map<String, Object> payload = CBOR.readValue(exchange.getRequestBody(), Map.class);
+                byte[] body = CBOR.writeValueAsBytes(Map.of(
+                        "message", "Hello from upstream (POST)",
+                        "service", "upstream",
+                        "receivedPayload", payload));
+                exchange.getResponseHeaders().set("Content-Type", "application/cbor");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            // Polled by UpstreamHealthIndicator. A 404 here makes the JDK server drop the
+            // kept-alive connection, and the next request would get it from the pool dead.
+            server.createContext("/actuator/health", exchange -> {
+                byte[] body = "{\"status\":\"UP\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void upstreamUrl(DynamicPropertyRegistry registry) {
+        registry.add("upstream.service.url", () -> "http://localhost:" + upstream.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void payloadRoundTripsAsCbor() {
+        Map<String, Object> payload = Map.of("name", "cbor", "count", 3, "nested", Map.of("ok", true));
+
+        ResponseEntity<?> response = controller.postRequest(payload);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        UpstreamResponse upstreamBody = ((ProxyResponse) response.getBody()).upstream();
+        assertThat(upstreamBody.message()).isEqualTo("Hello from upstream (POST)");
+        assertThat(upstreamBody.receivedPayload()).isEqualTo(payload);
+        assertThat(upstreamContentType.get()).isEqualTo("application/cbor");
+        assertThat(upstreamAccept.get()).isEqualTo("application/cbor");
+    }
+
+    @Test
+    void restTemplatePicksTheConfiguredCborConverter() {
+        // The first converter that can write the payload as CBOR is the one used
+        assertThat(restTemplate.getMessageConverters())
+                .filteredOn(MappingJackson2CborHttpMessageConverter.class::isInstance)
+                .first()
+                .isSameAs(cborConverter);
+    }
+}
@@ -0,0 +1,20 @@
+package com.demo.backend;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Reactive Backend Application (Spring WebFlux on Netty)
+ *
+ * Same contract as the rest-app backend, but requests are served by Netty event-loop
+ * threads and the upstream is called with a non-blocking WebClient. No thread is parked
+ * while the upstream call is in flight, so concurrency is bounded by the WebClient
+ * connection pool (see WebClientConfig) rather than by a servlet thread pool.
+ */
+@SpringBootApplication
+public class BackendApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(BackendApplication.class, args);
+    }
+}
@@ -0,0 +1,143 @@
+package com.demo.backend;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.instrumentation.reactor.v3_1.ContextPropagationOperator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reactive Backend Controller - Demonstrates OpenTelemetry with Spring WebFlux
+ *
+ * Serves the same /api/frontend_to_backend contract as the rest-app backend, producing
+ * the same "proxy-request" span, events and error body, but never blocks a thread:
+ * every handler returns a Mono that completes when the upstream responds.
+ *
+ * The Spring Boot Starter automatically instruments:
+ * - All WebFlux endpoints (creates server spans)
+ * - WebClient calls (creates client spans with context propagation)
+ *
+ * WHY NOT @WithSpan HERE?
+ *
+ * In a reactive handler the method returns immediately, long before the upstream call
+ * happens. The span must instead end when the Mono terminates, and the OpenTelemetry
+ * context must travel in the Reactor Context rather than a ThreadLocal, because the
+ * response is processed on whichever event-loop thread receives it. We therefore
+ * create the span with the Tracer API and hand it to WebClient via
+ * ContextPropagationOperator.
+ */
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class BackendController {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> MAP_TYPE =
+            new ParameterizedTypeReference<Map<String, Object>>() {};
+
+    private static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.method");
+
+    @Autowired
+    private WebClient webClient;
+
+    @Autowired
+    private PayloadCapture payloadCapture;
+
+    private final Tracer tracer;
+
+    // Target of proxyRequest, built once rather than per request
+    private final String proxyUrl;
+
+    private final ProxySpanRecorder proxySpans;
+
+    public BackendController(OpenTelemetry openTelemetry, @Value("${upstream.service.url}") String upstreamUrl) {
+        this.tracer = openTelemetry.getTracer("com.demo.backend");
+        this.proxyUrl = upstreamUrl + "/api/backend_to_upstream";
+        this.proxySpans = new ProxySpanRecorder(proxyUrl);
+    }
+
+    @GetMapping("/frontend_to_backend")
+    public Mono<ResponseEntity<Map<String, Object>>> getRequest() {
+        return proxyRequest(HttpMethod.GET, null);
+    }
+
+    @PostMapping("/frontend_to_backend")
+    public Mono<ResponseEntity<Map<String, Object>>> postRequest(@RequestBody(required = false) Map<String, Object> payload) {
+        return proxyRequest(HttpMethod.POST, payload);
+    }
+
+    @PutMapping("/frontend_to_backend")
+    public Mono<ResponseEntity<Map<String, Object>>> putRequest(@RequestBody(required = false) Map<String, Object> payload) {
+        return proxyRequest(HttpMethod.PUT, payload);
+    }
+
+    @DeleteMapping("/frontend_to_backend")
+    public Mono<ResponseEntity<Map<String, Object>>> deleteRequest() {
+        return proxyRequest(HttpMethod.DELETE, null);
+    }
+
+    /**
+     * Proxies requests to the upstream service without blocking.
+     *
+     * The "proxy-request" span is started when the Mono is subscribed, as a child of
+     * the server span found in the Reactor Context, and ended in doFinally - on
+     * success, error or client cancellation. Attributes, events and status are recorded
+     * by ProxySpanRecorder, which does nothing on a span that is not sampled.
+     */
+    private Mono<ResponseEntity<Map<String, Object>>> proxyRequest(HttpMethod method, Map<String, Object> payload) {
+        return Mono.deferContextual(contextView -> {
+            Context parentContext = ContextPropagationOperator.getOpenTelemetryContextFromContextView(contextView, Context.current());
+
+            Span currentSpan = tracer.spanBuilder("proxy-request")
+                    .setParent(parentContext)
+                    .setAttribute(HTTP_METHOD, method.name())
+                    .startSpan();
+            payloadCapture.record(currentSpan, payload);
+
+            // upstream.url and a "starting-upstream-call" event
+            proxySpans.started(currentSpan);
+
+            WebClient.RequestBodySpec request = webClient.method(method)
+                    .uri(proxyUrl)
+                    .contentType(MediaType.APPLICATION_JSON);
+            WebClient.RequestHeadersSpec<?> exchange = payload != null ? request.bodyValue(payload) : request;
+
+            return exchange.retrieve()
+                    .toEntity(MAP_TYPE)
+                    .map(upstreamResponse -> {
+                        // "upstream-call-completed" event and status OK
+                        proxySpans.completed(currentSpan);
+
+                        Map<String, Object> response = new HashMap<>();
+                        response.put("service", "backend");
+                        response.put("method", method.name());
+                        response.put("upstream", upstreamResponse.getBody());
+
+                        return ResponseEntity.ok(response);
+                    })
+                    .onErrorResume(e -> {
+                        // Exception, status ERROR and an "upstream-call-failed" event
+                        proxySpans.failed(currentSpan, e);
+
+                        Map<String, Object> errorResponse = new HashMap<>();
+                        errorResponse.put("service", "backend");
+                        errorResponse.put("error", "Failed to connect to upstream service");
+                        errorResponse.put("message", e.getMessage());
+                        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse));
+                    })
+                    .doFinally(signal -> currentSpan.end())
+                    // Make "proxy-request" the parent of the WebClient client span
+                    .contextWrite(ctx -> ContextPropagationOperator.storeOpenTelemetryContext(ctx, parentContext.with(currentSpan)));
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.demo.backend;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+
+/**
+ * The attributes, events and status BackendController.proxyRequest records on its
+ * "proxy-request" span, when the upstream call starts, succeeds or fails.
+ *
+ * This runs on every proxied request, so nothing here allocates on a span that is not
+ * recording (not sampled): each method returns before touching the span. The attribute
+ * key and the upstream.url attribute itself are built once at startup. The String
+ * overloads of Span.setAttribute create an AttributeKey on every call, even on a
+ * non-recording span, and the URL used to be concatenated per request.
+ *
+ * SpanRecordingBenchmark (benchmarks module) measures both paths with -prof gc.
+ */
+public final class ProxySpanRecorder {
+
+    private static final AttributeKey<String> UPSTREAM_URL = AttributeKey.stringKey("upstream.url");
+
+    private static final String UPSTREAM_FAILED = "Failed to connect to upstream service";
+
+    private final Attributes targetAttributes;
+
+    /**
+     * @param url the upstream URL proxied requests are sent to
+     */
+    public ProxySpanRecorder(String url) {
+        this.targetAttributes = Attributes.of(UPSTREAM_URL, url);
+    }
+
+    /** Upstream call about to start. */
+    public void started(Span span) {
+        if (!span.isRecording()) {
+            return;
+        }
+        span.setAllAttributes(targetAttributes);
+        // Events are timestamped annotations that help track the request lifecycle
+        span.addEvent("starting-upstream-call");
+    }
+
+    /** Upstream call succeeded. */
+    public void completed(Span span) {
+        if (!span.isRecording()) {
+            return;
+        }
+        span.addEvent("upstream-call-completed");
+        span.setStatus(StatusCode.OK);
+    }
+
+    /** Upstream call failed; the exception is recorded with the error status and event. */
+    public void failed(Span span, Throwable error) {
+        if (!span.isRecording()) {
+            return;
+        }
+        span.recordException(error);
+        // Makes errors highly visible in Honeycomb's trace view
+        span.setStatus(StatusCode.ERROR, UPSTREAM_FAILED);
+        span.addEvent("upstream-call-failed");
+    }
+}
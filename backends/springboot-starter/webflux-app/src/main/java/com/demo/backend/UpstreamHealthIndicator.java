@@ -0,0 +1,149 @@
+package com.demo.backend;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstream health, served from memory.
+ *
+ * A background prober (a Flux.interval subscription) calls the upstream's
+ * /actuator/health every upstream.health.interval and caches the result. health()
+ * only reads the cache, so Docker/Kubernetes probes and the frontend's polling never
+ * fan out to the upstream.
+ *
+ * A cached result older than upstream.health.ttl (probes timing out or not completing)
+ * is reported as UNKNOWN rather than served stale.
+ *
+ * Probe latency is recorded in the upstream.health.probe timer as a histogram,
+ * tagged with outcome=UP|DOWN.
+ */
+@Component
+public class UpstreamHealthIndicator implements ReactiveHealthIndicator {
+
+    private final WebClient webClient;
+    private final String upstreamUrl;
+    private final Duration interval;
+    private final Duration ttl;
+    private final Duration timeout;
+    private final Timer upLatency;
+    private final Timer downLatency;
+
+    private volatile ProbeResult lastResult;
+    private Disposable prober;
+
+    public UpstreamHealthIndicator(
+            WebClient webClient,
+            MeterRegistry meterRegistry,
+            @Value("${upstream.service.url}") String upstreamUrl,
+            @Value("${upstream.health.interval:10s}") Duration interval,
+            @Value("${upstream.health.ttl:30s}") Duration ttl,
+            @Value("${upstream.health.timeout:5s}") Duration timeout) {
+        this.webClient = webClient;
+        this.upstreamUrl = upstreamUrl;
+        this.interval = interval;
+        this.ttl = ttl;
+        this.timeout = timeout;
+        this.upLatency = probeTimer(meterRegistry, "UP");
+        this.downLatency = probeTimer(meterRegistry, "DOWN");
+    }
+
+    private static Timer probeTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("upstream.health.probe")
+                .description("Latency of background upstream health probes")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // concatMap: never more than one probe in flight
+        prober = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> probe())
+                .subscribe(result -> lastResult = result);
+    }
+
+    @PreDestroy
+    public void stop() {
+        prober.dispose();
+    }
+
+    private Mono<ProbeResult> probe() {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            return webClient.get()
+                    .uri(upstreamUrl + "/actuator/health")
+                    .retrieve()
+                    .toBodilessEntity()
+                    .timeout(timeout)
+                    .map(response -> Health.up()
+                            .withDetail("upstream", "UP")
+                            .withDetail("url", upstreamUrl)
+                            .build())
+                    .onErrorResume(e -> Mono.just(Health.down()
+                            .withDetail("upstream", "DOWN")
+                            .withDetail("error", String.valueOf(e.getMessage()))
+                            .withDetail("url", upstreamUrl)
+                            .build()))
+                    .map(health -> {
+                        long elapsed = System.nanoTime() - startTime;
+                        (health.getStatus().getCode().equals("UP") ? upLatency : downLatency).record(elapsed, TimeUnit.NANOSECONDS);
+                        return new ProbeResult(health, Instant.now());
+                    });
+        });
+    }
+
+    @Override
+    public Mono<Health> health() {
+        return Mono.fromSupplier(this::cachedHealth);
+    }
+
+    private Health cachedHealth() {
+        ProbeResult result = lastResult;
+        if (result == null) {
+            return Health.unknown()
+                    .withDetail("upstream", "UNKNOWN")
+                    .withDetail("reason", "No probe has completed yet")
+                    .withDetail("url", upstreamUrl)
+                    .build();
+        }
+        if (result.checkedAt.plus(ttl).isBefore(Instant.now())) {
+            return Health.unknown()
+                    .withDetail("upstream", "UNKNOWN")
+                    .withDetail("reason", "Last probe result is older than " + ttl)
+                    .withDetail("checkedAt", result.checkedAt.toString())
+                    .withDetail("url", upstreamUrl)
+                    .build();
+        }
+        return Health.status(result.health.getStatus())
+                .withDetails(result.health.getDetails())
+                .withDetail("checkedAt", result.checkedAt.toString())
+                .build();
+    }
+
+    private static class ProbeResult {
+
+        private final Health health;
+        private final Instant checkedAt;
+
+        ProbeResult(Health health, Instant checkedAt) {
+            this.health = health;
+            this.checkedAt = checkedAt;
+        }
+    }
+}
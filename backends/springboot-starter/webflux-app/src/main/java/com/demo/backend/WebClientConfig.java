@@ -0,0 +1,65 @@
+package com.demo.backend;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking WebClient for calls to the upstream service.
+ *
+ * CRITICAL FOR OPENTELEMETRY CONTEXT PROPAGATION:
+ *
+ * We MUST build the WebClient from the Spring-managed WebClient.Builder, for the same
+ * reason the rest-app uses RestTemplateBuilder: the OpenTelemetry Spring Boot Starter
+ * post-processes the builder bean and adds a filter that creates client spans and
+ * injects the "traceparent" header. "WebClient.create()" bypasses this.
+ *
+ * The Reactor Netty connection pool is sized through upstream.client.* properties.
+ * Reactor Netty's default pool is small (2 x CPU cores, at least 16), which would cap
+ * in-flight upstream calls long before the event loop is saturated.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider upstreamConnectionProvider(
+            @Value("${upstream.client.max-connections:1000}") int maxConnections,
+            @Value("${upstream.client.pending-acquire-max-count:5000}") int pendingAcquireMaxCount,
+            @Value("${upstream.client.pending-acquire-timeout:1s}") Duration pendingAcquireTimeout,
+            @Value("${upstream.client.max-idle-time:30s}") Duration maxIdleTime,
+            @Value("${upstream.client.eviction-interval:60s}") Duration evictionInterval) {
+
+        return ConnectionProvider.builder("upstream")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(evictionInterval)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient webClient(
+            WebClient.Builder builder,
+            ConnectionProvider upstreamConnectionProvider,
+            @Value("${upstream.client.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${upstream.client.read-timeout:10s}") Duration readTimeout) {
+
+        HttpClient httpClient = HttpClient.create(upstreamConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout)
+                .keepAlive(true);
+
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
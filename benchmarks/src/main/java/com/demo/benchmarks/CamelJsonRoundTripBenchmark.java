@@ -0,0 +1,128 @@
+package com.demo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.TypeConverter;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.support.DefaultExchange;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSON passes made per request by the Camel backend, per upstream.response.mode:
+ *
+ * buffered (roundTrip):
+ * 1. ProxyRoute: .convertBodyTo(String.class) on the camel-http response stream
+ * 2. BackendController: objectMapper.readValue(responseJson, Map.class)
+ * 3. Spring MVC: serializing the wrapped response map back to JSON
+ *
+ * typed: the route unmarshals the stream into a Map, Spring MVC serializes it
+ * passthrough: the stream is read as bytes and spliced between the wrapper fields
+ *
+ * bytesToMap() parses the stream directly for comparison. The payload parameter
+ * controls the size of the upstream body.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CamelJsonRoundTripBenchmark {
+
+    @Param({"small", "large"})
+    public String payload;
+
+    private CamelContext camelContext;
+    private TypeConverter typeConverter;
+    private Exchange exchange;
+    private ObjectMapper objectMapper;
+    private byte[] upstreamBody;
+    private String upstreamJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        camelContext = new DefaultCamelContext();
+        camelContext.start();
+        typeConverter = camelContext.getTypeConverter();
+        exchange = new DefaultExchange(camelContext);
+        objectMapper = new ObjectMapper();
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", "2025-01-01T00:00:00Z");
+        body.put("message", "Hello from upstream (POST)");
+        body.put("service", "upstream");
+        Map<String, Object> receivedPayload = new HashMap<>();
+        int fields = "large".equals(payload) ? 500 : 3;
+        for (int i = 0; i < fields; i++) {
+            receivedPayload.put("field" + i, "value-" + i);
+        }
+        body.put("receivedPayload", receivedPayload);
+
+        upstreamBody = objectMapper.writeValueAsBytes(body);
+        upstreamJson = new String(upstreamBody, StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        camelContext.stop();
+    }
+
+    @Benchmark
+    public String convertBodyToString() {
+        return typeConverter.convertTo(String.class, exchange, new ByteArrayInputStream(upstreamBody));
+    }
+
+    @Benchmark
+    public Map<?, ?> readValue() throws Exception {
+        return objectMapper.readValue(upstreamJson, Map.class);
+    }
+
+    @Benchmark
+    public byte[] roundTrip() throws Exception {
+        String responseJson = typeConverter.convertTo(String.class, exchange, new ByteArrayInputStream(upstreamBody));
+        Map<?, ?> upstreamResponse = objectMapper.readValue(responseJson, Map.class);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("service", "backend-camel");
+        response.put("method", "POST");
+        response.put("upstream", upstreamResponse);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public Map<?, ?> bytesToMap() throws Exception {
+        return objectMapper.readValue(new ByteArrayInputStream(upstreamBody), Map.class);
+    }
+
+    @Benchmark
+    public byte[] typed() throws Exception {
+        Map<?, ?> upstreamResponse = objectMapper.readValue(new ByteArrayInputStream(upstreamBody), Map.class);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("service", "backend-camel");
+        response.put("method", "POST");
+        response.put("upstream", upstreamResponse);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] passthrough() {
+        byte[] body = typeConverter.convertTo(byte[].class, exchange, new ByteArrayInputStream(upstreamBody));
+
+        // Same splice as BackendController.wrapRaw
+        byte[] prefix = "{\"service\":\"backend-camel\",\"method\":\"POST\",\"upstream\":".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(prefix.length + body.length + 1);
+        out.writeBytes(prefix);
+        out.writeBytes(body);
+        out.write('}');
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rest-app proxy's JSON work per request: read the upstream body, wrap it, write
+ * the response.
+ *
+ * untypedMaps() is the former path that read Map.class and built a HashMap; typedRecords()
+ * binds the same bytes to records like UpstreamResponse and ProxyResponse, and
+ * typedRecordsBlackbird() adds the opt-in Blackbird module (json.blackbird.enabled).
+ * The records are mirrored here because the module compiles one backend at a time.
+ *
+ * Run with -prof gc and compare gc.alloc.rate.norm. The payload parameter sets the size
+ * of receivedPayload, which stays an untyped Map in every variant.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBindingBenchmark {
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record UpstreamResponse(String timestamp, String message, String service, Map<String, Object> receivedPayload) {
+    }
+
+    public record ProxyResponse(String service, String method, UpstreamResponse upstream) {
+    }
+
+    @Param({"small", "large"})
+    public String payload;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper blackbirdMapper;
+    private byte[] upstreamBody;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Spring Boot's default
+        objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        blackbirdMapper = objectMapper.copy().registerModule(new BlackbirdModule());
+
+        Map<String, Object> receivedPayload = new HashMap<>();
+        int fields = "large".equals(payload) ? 500 : 3;
+        for (int i = 0; i < fields; i++) {
+            receivedPayload.put("field" + i, "value-" + i);
+        }
+        upstreamBody = objectMapper.writeValueAsBytes(new UpstreamResponse(
+                "2025-01-01T00:00:00Z", "Hello from upstream (POST)", "upstream", receivedPayload));
+    }
+
+    @Benchmark
+    public byte[] untypedMaps() throws Exception {
+        Map<?, ?> upstream = objectMapper.readValue(upstreamBody, Map.class);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("service", "backend");
+        response.put("method", "POST");
+        response.put("upstream", upstream);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] typedRecords() throws Exception {
+        return roundTrip(objectMapper);
+    }
+
+    @Benchmark
+    public byte[] typedRecordsBlackbird() throws Exception {
+        return roundTrip(blackbirdMapper);
+    }
+
+    private byte[] roundTrip(ObjectMapper mapper) throws Exception {
+        UpstreamResponse upstream = mapper.readValue(upstreamBody, UpstreamResponse.class);
+        return mapper.writeValueAsBytes(new ProxyResponse("backend", "POST", upstream));
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.benchmarks;
+
+import com.demo.backend.BackendApplication;
+import com.demo.backend.BackendController;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of BackendController.proxyRequest against an in-process stub upstream.
+ *
+ * Boots the backend selected by the Maven profile (rest-app or camel-rest-app) and calls
+ * the controller bean directly, so the measurement covers the proxy path - span work,
+ * payload capture, the outbound HTTP call and response-map building - without the
+ * inbound Tomcat/Spring MVC dispatch.
+ *
+ * instrumentation=on  - OpenTelemetry SDK active, spans recorded but not exported
+ * instrumentation=off - otel.sdk.disabled=true
+ *
+ * Run with -prof gc to get allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProxyRequestBenchmark {
+
+    @Param({"on", "off"})
+    public String instrumentation;
+
+    private StubUpstream upstream;
+    private ConfigurableApplicationContext context;
+    private BackendController controller;
+    private Map<String, Object> payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        upstream = StubUpstream.start();
+
+        // Command-line arguments take precedence over the backend's application.properties
+        context = SpringApplication.run(BackendApplication.class,
+                "--server.port=0",
+                "--upstream.service.url=" + upstream.url(),
+                "--otel.sdk.disabled=" + "off".equals(instrumentation),
+                "--otel.traces.exporter=none",
+                "--otel.metrics.exporter=none",
+                "--otel.logs.exporter=none",
+                "--otel.exporter.otlp.headers=",
+                "--otel.resource.attributes=",
+                "--logging.level.root=WARN");
+        controller = context.getBean(BackendController.class);
+
+        payload = new HashMap<>();
+        payload.put("message", "Hello from benchmark");
+        payload.put("count", 42);
+        payload.put("tags", List.of("a", "b", "c"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        upstream.close();
+    }
+
+    @Benchmark
+    public Object get() {
+        return await(controller.getRequest());
+    }
+
+    @Benchmark
+    public Object post() {
+        return await(controller.postRequest(payload));
+    }
+
+    /** The Camel controller replies with a CompletableFuture (upstream.async.enabled). */
+    private static Object await(Object reply) {
+        return reply instanceof CompletableFuture ? ((CompletableFuture<?>) reply).join() : reply;
+    }
+}
@@ -0,0 +1,61 @@
+package com.demo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of wrapping the upstream body in the backend's response map.
+ *
+ * hashMap() mirrors the code in BackendController.proxyRequest; the other variants
+ * show what presizing or an immutable map would save.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseMapBenchmark {
+
+    private Map<String, Object> upstreamBody;
+    private String method;
+
+    @Setup
+    public void setUp() {
+        upstreamBody = new LinkedHashMap<>();
+        upstreamBody.put("timestamp", "2025-01-01T00:00:00Z");
+        upstreamBody.put("message", "Hello from upstream");
+        upstreamBody.put("service", "upstream");
+        method = "GET";
+    }
+
+    @Benchmark
+    public Map<String, Object> hashMap() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("service", "backend");
+        response.put("method", method);
+        response.put("upstream", upstreamBody);
+        return response;
+    }
+
+    @Benchmark
+    public Map<String, Object> presizedHashMap() {
+        Map<String, Object> response = new HashMap<>(4);
+        response.put("service", "backend");
+        response.put("method", method);
+        response.put("upstream", upstreamBody);
+        return response;
+    }
+
+    @Benchmark
+    public Map<String, Object> immutableMap() {
+        return Map.of(
+                "service", "backend",
+                "method", method,
+                "upstream", upstreamBody);
+    }
+}
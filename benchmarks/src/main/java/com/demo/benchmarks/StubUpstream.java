@@ -0,0 +1,66 @@
+package com.demo.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process stand-in for the upstream service.
+ *
+ * Answers every request to /api/backend_to_upstream and /actuator/health with a fixed
+ * JSON body shaped like UpstreamController's response, so benchmarks measure the
+ * backend and not the upstream.
+ */
+public final class StubUpstream implements AutoCloseable {
+
+    static final String RESPONSE_JSON = "{\"timestamp\":\"2025-01-01T00:00:00Z\","
+            + "\"message\":\"Hello from upstream\",\"service\":\"upstream\"}";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private StubUpstream(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static StubUpstream start() throws IOException {
+        byte[] body = RESPONSE_JSON.getBytes(StandardCharsets.UTF_8);
+
+        // Without TCP_NODELAY, Nagle + delayed ACK adds ~40ms to every keep-alive response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                requestBody.transferTo(OutputStream.nullOutputStream());
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        server.setExecutor(executor);
+        server.start();
+        return new StubUpstream(server, executor);
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
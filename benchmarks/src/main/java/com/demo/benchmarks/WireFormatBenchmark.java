@@ -0,0 +1,75 @@
+package com.demo.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the backend-to-upstream body in each upstream.wire-format.
+ *
+ * encode() is what the backend does with a POST payload (and the upstream with its
+ * response), decode() the reverse. The payload parameter controls the size of the
+ * body; the setup prints the encoded size of each format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"small", "large"})
+    public String payload;
+
+    private ObjectMapper mapper;
+    private Map<String, Object> body;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        switch (format) {
+            case "cbor":
+                mapper = new CBORMapper();
+                break;
+            case "smile":
+                mapper = new SmileMapper();
+                break;
+            default:
+                mapper = new ObjectMapper();
+        }
+
+        Map<String, Object> receivedPayload = new HashMap<>();
+        int fields = "large".equals(payload) ? 500 : 3;
+        for (int i = 0; i < fields; i++) {
+            receivedPayload.put("field" + i, "value-" + i);
+            receivedPayload.put("number" + i, i * 1.5);
+        }
+        body = new HashMap<>();
+        body.put("timestamp", "2025-01-01T00:00:00Z");
+        body.put("message", "Hello from upstream (POST)");
+        body.put("service", "upstream");
+        body.put("receivedPayload", receivedPayload);
+
+        encoded = mapper.writeValueAsBytes(body);
+        System.out.println("\n" + format + "/" + payload + ": " + encoded.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return mapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public Map<?, ?> decode() throws Exception {
+        return mapper.readValue(encoded, Map.class);
+    }
+}
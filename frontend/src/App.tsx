@@ -20,6 +20,12 @@ const BACKENDS = {
     path: 'backends/springboot-starter/camel-rest-app-dev',
     type: 'Spring Boot Starter'
   },
+  'starter-webflux': {
+    url: 'http://localhost:3015',
+    name: 'Spring Boot Starter - WebFlux',
+    path: 'backends/springboot-starter/webflux-app',
+    type: 'Spring Boot Starter'
+  },
   'agent-rest': {
     url: 'http://localhost:3011',
     name: 'OTEL Java Agent - REST',
@@ -60,7 +66,7 @@ interface ApiResponse {
 }
 
 function App() {
-  const [selectedBackend, setSelectedBackend] = useState<'starter-rest' | 'starter-camel-rest' | 'starter-camel-rest-dev' | 'agent-rest' | 'agent-camel-rest'>('starter-rest')
+  const [selectedBackend, setSelectedBackend] = useState<'starter-rest' | 'starter-camel-rest' | 'starter-camel-rest-dev' | 'starter-webflux' | 'agent-rest' | 'agent-camel-rest'>('starter-rest')
   const [response, setResponse] = useState<ApiResponse | null>(null)
   const [health, setHealth] = useState<HealthStatus>({
     backend: 'CHECKING',
@@ -218,6 +224,13 @@ function App() {
                   >
                     Camel DEV
                   </button>
+                  <button
+                    className={selectedBackend === 'starter-webflux' ? 'btn-primary' : 'btn-get'}
+                    onClick={() => setSelectedBackend('starter-webflux')}
+                    style={{ fontSize: '0.85rem', padding: '8px 10px' }}
+                  >
+                    WebFlux
+                  </button>
                 </div>
               </div>
 
@@ -0,0 +1,80 @@
+package com.demo.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples process CPU and heap usage from a backend's /actuator/metrics once a second
+ * while load is running.
+ */
+final class ActuatorSampler implements AutoCloseable {
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final String baseUrl;
+
+    private double cpuSum;
+    private int cpuSamples;
+    private double maxHeapBytes;
+
+    ActuatorSampler(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    void start() {
+        scheduler.scheduleAtFixedRate(this::sample, 0, 1, TimeUnit.SECONDS);
+    }
+
+    private synchronized void sample() {
+        Double cpu = metric("process.cpu.usage");
+        if (cpu != null && cpu >= 0) {
+            cpuSum += cpu;
+            cpuSamples++;
+        }
+        Double heap = metric("jvm.memory.used?tag=area:heap");
+        if (heap != null) {
+            maxHeapBytes = Math.max(maxHeapBytes, heap);
+        }
+    }
+
+    private Double metric(String name) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + name))
+                    .timeout(Duration.ofSeconds(2))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            JsonNode measurement = objectMapper.readTree(response.body()).path("measurements").path(0);
+            return measurement.has("value") ? measurement.get("value").asDouble() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** Average CPU usage of the backend JVM over the run, 0-100% of all cores; NaN if unavailable. */
+    synchronized double averageCpuPercent() {
+        return cpuSamples == 0 ? Double.NaN : cpuSum / cpuSamples * 100;
+    }
+
+    /** Highest heap usage seen, in MB; NaN if unavailable. */
+    synchronized double maxHeapMegabytes() {
+        return maxHeapBytes == 0 ? Double.NaN : maxHeapBytes / (1024 * 1024);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,68 @@
+package com.demo.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The backends under test, with the same ports and module paths as docker-compose.yml.
+ */
+enum Backend {
+
+    STARTER_REST("starter-rest", 3010, "backends/springboot-starter/rest-app", false),
+    AGENT_REST("agent-rest", 3011, "backends/otel-java-agent/rest-app", true),
+    STARTER_CAMEL_REST("starter-camel-rest", 3012, "backends/springboot-starter/camel-rest-app", false),
+    STARTER_CAMEL_REST_DEV("starter-camel-rest-dev", 3013, "backends/springboot-starter/camel-rest-app-dev", false),
+    AGENT_CAMEL_REST("agent-camel-rest", 3014, "backends/otel-java-agent/camel-rest-app", true),
+    STARTER_WEBFLUX("starter-webflux", 3015, "backends/springboot-starter/webflux-app", false);
+
+    final String id;
+    final int port;
+    final String modulePath;
+    final boolean javaAgent;
+
+    Backend(String id, int port, String modulePath, boolean javaAgent) {
+        this.id = id;
+        this.port = port;
+        this.modulePath = modulePath;
+        this.javaAgent = javaAgent;
+    }
+
+    /**
+     * The Spring Boot jar built by "mvn package" in the backend's module.
+     */
+    Path jar(Path repoRoot) throws IOException {
+        Path target = repoRoot.resolve(modulePath).resolve("target");
+        if (!Files.isDirectory(target)) {
+            throw new IOException("No build output for " + id + " - run 'mvn package' in " + modulePath);
+        }
+        try (Stream<Path> files = Files.list(target)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("No jar in " + target + " - run 'mvn package' in " + modulePath));
+        }
+    }
+
+    static List<Backend> parse(String value) {
+        if (value.equals("all")) {
+            return Arrays.asList(values());
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .map(Backend::byId)
+                .collect(Collectors.toList());
+    }
+
+    private static Backend byId(String id) {
+        return Arrays.stream(values())
+                .filter(backend -> backend.id.equals(id))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown backend '" + id + "', expected one of "
+                        + Arrays.stream(values()).map(backend -> backend.id).collect(Collectors.joining(", "))));
+    }
+}
@@ -0,0 +1,126 @@
+package com.demo.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts one backend jar as a child JVM with instrumentation switched on or off.
+ *
+ * Instrumentation off means:
+ * - Spring Boot Starter backends: OTEL_SDK_DISABLED=true (the starter stays on the classpath)
+ * - Java agent backends: no -javaagent flag at all
+ *
+ * With instrumentation on, spans are exported over OTLP/HTTP to the harness's
+ * StubOtlpReceiver, so exporter cost is part of the measurement.
+ */
+final class BackendProcess implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Backend backend;
+    private final Process process;
+
+    private BackendProcess(Backend backend, Process process) {
+        this.backend = backend;
+        this.process = process;
+    }
+
+    static BackendProcess start(Backend backend, boolean instrumented, Options options,
+                                String upstreamUrl, String otlpEndpoint) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xms" + options.heap);
+        command.add("-Xmx" + options.heap);
+        if (backend.javaAgent && instrumented) {
+            if (!Files.isRegularFile(options.agentJar)) {
+                throw new IOException("OpenTelemetry Java agent not found at " + options.agentJar
+                        + " - download it or pass --agent-jar=<path>");
+            }
+            command.add("-javaagent:" + options.agentJar);
+        }
+        command.add("-jar");
+        command.add(backend.jar(options.repoRoot).toString());
+        command.add("--server.port=" + backend.port);
+        command.add("--upstream.service.url=" + upstreamUrl);
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        Map<String, String> env = builder.environment();
+        env.put("OTEL_SERVICE_NAME", backend.id);
+        env.put("OTEL_TRACES_EXPORTER", "otlp");
+        env.put("OTEL_METRICS_EXPORTER", "none");
+        env.put("OTEL_LOGS_EXPORTER", "none");
+        env.put("OTEL_EXPORTER_OTLP_ENDPOINT", otlpEndpoint);
+        env.put("OTEL_EXPORTER_OTLP_PROTOCOL", "http/protobuf");
+        env.put("OTEL_EXPORTER_OTLP_HEADERS", "x-loadtest=true");
+        env.put("OTEL_RESOURCE_ATTRIBUTES", "app.version=" + backend.id + ",loadtest.instrumentation=" + (instrumented ? "on" : "off"));
+        if (!instrumented) {
+            env.put("OTEL_SDK_DISABLED", "true");
+        }
+
+        Path logFile = options.outputDir.resolve("logs").resolve(backend.id + "-" + (instrumented ? "on" : "off") + ".log");
+        Files.createDirectories(logFile.getParent());
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(logFile.toFile());
+
+        BackendProcess backendProcess = new BackendProcess(backend, builder.start());
+        backendProcess.awaitHealthy(logFile);
+        return backendProcess;
+    }
+
+    private void awaitHealthy(Path logFile) throws IOException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + backend.port + "/actuator/health"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException(backend.id + " exited during startup, see " + logFile);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for " + backend.id, e);
+            }
+            sleep(Duration.ofMillis(500));
+        }
+        close();
+        throw new IOException(backend.id + " did not become healthy within " + STARTUP_TIMEOUT + ", see " + logFile);
+    }
+
+    @Override
+    public void close() {
+        process.destroy();
+        try {
+            if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
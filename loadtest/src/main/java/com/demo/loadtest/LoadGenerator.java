@@ -0,0 +1,115 @@
+package com.demo.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: sends requests at a fixed rate regardless of how fast
+ * responses come back.
+ *
+ * Latency is measured from the time each request was scheduled to be sent, not from
+ * when it was actually sent, so a backend that stalls is charged for the queueing it
+ * causes (no coordinated omission).
+ */
+final class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+
+    LoadGenerator() {
+        executor = Executors.newCachedThreadPool();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(executor)
+                .build();
+    }
+
+    Result run(String url, String method, int rps, Duration duration) throws InterruptedException {
+        int total = (int) (rps * duration.toSeconds());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long[] latencies = new long[total];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(total);
+        HttpRequest request = request(url, method);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int index = i;
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[index] = System.nanoTime() - intended;
+                        if (error != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                        done.countDown();
+                    });
+        }
+        done.await(REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        return new Result(rps, total, errors.get(), elapsed, latencies);
+    }
+
+    private static HttpRequest request(String url, String method) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT);
+        if (method.equals("GET") || method.equals("DELETE")) {
+            return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        }
+        return builder
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString("{\"message\":\"load test\",\"count\":1}"))
+                .build();
+    }
+
+    void close() {
+        executor.shutdownNow();
+    }
+
+    static final class Result {
+
+        final int targetRps;
+        final int requests;
+        final int errors;
+        final long elapsedNanos;
+        private final long[] sortedLatencies;
+
+        Result(int targetRps, int requests, int errors, long elapsedNanos, long[] latencies) {
+            this.targetRps = targetRps;
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = latencies.clone();
+            Arrays.sort(sortedLatencies);
+        }
+
+        double throughput() {
+            return (requests - errors) / (elapsedNanos / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.demo.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Load-test harness comparing each backend with instrumentation on and off.
+ *
+ * For every selected backend and instrumentation mode the harness:
+ * 1. starts the backend jar against an in-process stub upstream and stub OTLP receiver
+ *    (launch mode), or uses the backend already listening on its port (attach mode)
+ * 2. sends --warmup worth of requests and discards the results
+ * 3. sends --duration worth of requests at a fixed --rps while sampling CPU and heap
+ *    from /actuator/metrics
+ * 4. prints throughput, latency percentiles, errors, CPU, heap and exported span bytes
+ *
+ * Usage (from loadtest/, after "mvn package" in each backend module):
+ *
+ *   mvn -B package exec:java -Dexec.args="--backends=starter-rest,agent-rest --rps=200 --duration=30s"
+ *
+ * Options:
+ *   --backends=all|<id>,...      starter-rest, agent-rest, starter-camel-rest, starter-camel-rest-dev,
+ *                                agent-camel-rest, starter-webflux (default: all)
+ *   --instrumentation=on,off     modes to compare (default: on,off)
+ *   --rps=200                    target request rate
+ *   --duration=30s               measured run length
+ *   --warmup=10s                 unmeasured warm-up before each run
+ *   --method=GET                 GET, POST, PUT or DELETE
+ *   --mode=launch|attach         attach measures backends you started yourself (e.g. docker compose);
+ *                                --instrumentation is then only a label
+ *   --heap=512m                  -Xms/-Xmx for launched backends
+ *   --agent-jar=<path>           OpenTelemetry Java agent (default: otel/opentelemetry-javaagent.jar)
+ *   --csv=<file>                 also write results as CSV
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        List<Row> rows = new ArrayList<>();
+
+        try (StubUpstream upstream = new StubUpstream();
+             StubOtlpReceiver otlp = new StubOtlpReceiver()) {
+
+            for (Backend backend : options.backends) {
+                if (backend.javaAgent && !options.attach && !Files.isRegularFile(options.agentJar)) {
+                    System.out.printf("Skipping %s: Java agent not found at %s%n", backend.id, options.agentJar);
+                    continue;
+                }
+                for (boolean instrumented : options.instrumentation) {
+                    System.out.printf("== %s, instrumentation %s%n", backend.id, instrumented ? "on" : "off");
+                    try {
+                        rows.add(run(backend, instrumented, options, upstream, otlp));
+                    } catch (IOException e) {
+                        System.out.println("   failed: " + e.getMessage());
+                    }
+                }
+            }
+        }
+
+        print(rows, System.out);
+        if (options.csv != null) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(options.csv))) {
+                printCsv(rows, out);
+            }
+            System.out.println("CSV written to " + options.csv);
+        }
+    }
+
+    private static Row run(Backend backend, boolean instrumented, Options options,
+                           StubUpstream upstream, StubOtlpReceiver otlp) throws IOException, InterruptedException {
+        String baseUrl = "http://localhost:" + backend.port;
+        String url = baseUrl + "/api/frontend_to_backend";
+
+        BackendProcess process = options.attach ? null
+                : BackendProcess.start(backend, instrumented, options, upstream.url(), otlp.endpoint());
+        LoadGenerator generator = new LoadGenerator();
+        try {
+            if (!options.warmup.isZero()) {
+                generator.run(url, options.method, options.rps, options.warmup);
+            }
+
+            long otlpRequestsBefore = otlp.requests();
+            long otlpBytesBefore = otlp.bytes();
+            try (ActuatorSampler sampler = new ActuatorSampler(baseUrl)) {
+                sampler.start();
+                LoadGenerator.Result result = generator.run(url, options.method, options.rps, options.duration);
+                return new Row(backend.id, instrumented, result, sampler.averageCpuPercent(), sampler.maxHeapMegabytes(),
+                        otlp.requests() - otlpRequestsBefore, otlp.bytes() - otlpBytesBefore);
+            }
+        } finally {
+            generator.close();
+            if (process != null) {
+                process.close();
+            }
+        }
+    }
+
+    private static void print(List<Row> rows, PrintStream out) {
+        String format = "%-24s %-5s %8s %8s %8s %8s %8s %7s %7s %9s %7s %10s%n";
+        out.println();
+        out.printf(format, "backend", "otel", "target", "rps", "p50 ms", "p90 ms", "p99 ms", "max ms",
+                "errors", "cpu %", "heap MB", "otlp KB");
+        for (Row row : rows) {
+            LoadGenerator.Result r = row.result;
+            out.printf(format, row.backend, row.instrumented ? "on" : "off",
+                    r.targetRps, number(r.throughput()),
+                    number(r.percentileMillis(50)), number(r.percentileMillis(90)),
+                    number(r.percentileMillis(99)), number(r.percentileMillis(100)),
+                    r.errors, number(row.cpuPercent), number(row.heapMegabytes), number(row.otlpBytes / 1024.0));
+        }
+    }
+
+    private static void printCsv(List<Row> rows, PrintStream out) {
+        out.println("backend,instrumentation,target_rps,throughput,p50_ms,p90_ms,p99_ms,max_ms,errors,cpu_percent,heap_mb,otlp_requests,otlp_bytes");
+        for (Row row : rows) {
+            LoadGenerator.Result r = row.result;
+            out.println(String.join(",", row.backend, row.instrumented ? "on" : "off",
+                    String.valueOf(r.targetRps), number(r.throughput()),
+                    number(r.percentileMillis(50)), number(r.percentileMillis(90)),
+                    number(r.percentileMillis(99)), number(r.percentileMillis(100)),
+                    String.valueOf(r.errors), number(row.cpuPercent), number(row.heapMegabytes),
+                    String.valueOf(row.otlpRequests), String.valueOf(row.otlpBytes)));
+        }
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "-" : String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static final class Row {
+
+        final String backend;
+        final boolean instrumented;
+        final LoadGenerator.Result result;
+        final double cpuPercent;
+        final double heapMegabytes;
+        final long otlpRequests;
+        final long otlpBytes;
+
+        Row(String backend, boolean instrumented, LoadGenerator.Result result, double cpuPercent,
+            double heapMegabytes, long otlpRequests, long otlpBytes) {
+            this.backend = backend;
+            this.instrumented = instrumented;
+            this.result = result;
+            this.cpuPercent = cpuPercent;
+            this.heapMegabytes = heapMegabytes;
+            this.otlpRequests = otlpRequests;
+            this.otlpBytes = otlpBytes;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.demo.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line options, all in --name=value form.
+ */
+final class Options {
+
+    List<Backend> backends = Backend.parse("all");
+    List<Boolean> instrumentation = List.of(true, false);
+    int rps = 200;
+    Duration duration = Duration.ofSeconds(30);
+    Duration warmup = Duration.ofSeconds(10);
+    String method = "GET";
+    boolean attach;
+    String heap = "512m";
+    Path repoRoot = findRepoRoot();
+    Path agentJar = repoRoot.resolve("otel/opentelemetry-javaagent.jar");
+    Path outputDir = repoRoot.resolve("loadtest/target");
+    Path csv;
+
+    static Options parse(String[] args) {
+        Options options = new Options();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got '" + arg + "'");
+            }
+            String name = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            switch (name) {
+                case "backends":
+                    options.backends = Backend.parse(value);
+                    break;
+                case "instrumentation":
+                    options.instrumentation = parseInstrumentation(value);
+                    break;
+                case "rps":
+                    options.rps = Integer.parseInt(value);
+                    break;
+                case "duration":
+                    options.duration = parseDuration(value);
+                    break;
+                case "warmup":
+                    options.warmup = parseDuration(value);
+                    break;
+                case "method":
+                    options.method = value.toUpperCase();
+                    break;
+                case "mode":
+                    if (!value.equals("launch") && !value.equals("attach")) {
+                        throw new IllegalArgumentException("--mode must be launch or attach");
+                    }
+                    options.attach = value.equals("attach");
+                    break;
+                case "heap":
+                    options.heap = value;
+                    break;
+                case "agent-jar":
+                    options.agentJar = Path.of(value).toAbsolutePath();
+                    break;
+                case "csv":
+                    options.csv = Path.of(value).toAbsolutePath();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        return options;
+    }
+
+    private static List<Boolean> parseInstrumentation(String value) {
+        List<Boolean> modes = new ArrayList<>();
+        for (String mode : value.split(",")) {
+            switch (mode.trim()) {
+                case "on":
+                    modes.add(true);
+                    break;
+                case "off":
+                    modes.add(false);
+                    break;
+                default:
+                    throw new IllegalArgumentException("--instrumentation takes on, off or on,off");
+            }
+        }
+        return modes;
+    }
+
+    /** Accepts "30s", "2m" or "500ms". */
+    private static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    /** Walks up from the working directory to the directory holding docker-compose.yml. */
+    private static Path findRepoRoot() {
+        Path dir = Path.of("").toAbsolutePath();
+        for (Path candidate = dir; candidate != null; candidate = candidate.getParent()) {
+            if (Files.isRegularFile(candidate.resolve("docker-compose.yml"))) {
+                return candidate;
+            }
+        }
+        return dir;
+    }
+}
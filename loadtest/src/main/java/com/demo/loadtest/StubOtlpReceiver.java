@@ -0,0 +1,62 @@
+package com.demo.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal OTLP/HTTP sink: accepts POST /v1/traces (and metrics/logs), counts export
+ * requests and bytes, and replies 200 with an empty protobuf body, which is a valid
+ * "everything accepted" Export*ServiceResponse.
+ *
+ * Keeps exporter cost in the measurement without depending on Honeycomb.
+ */
+final class StubOtlpReceiver implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    StubOtlpReceiver() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        server.createContext("/v1/", exchange -> {
+            long received;
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                received = requestBody.transferTo(OutputStream.nullOutputStream());
+            }
+            requests.incrementAndGet();
+            bytes.addAndGet(received);
+            exchange.getResponseHeaders().add("Content-Type", "application/x-protobuf");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        executor = Executors.newFixedThreadPool(4);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long bytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,54 @@
+package com.demo.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stand-in for the upstream service: answers /api/backend_to_upstream and
+ * /actuator/health with a fixed JSON body, so every backend sees the same upstream.
+ */
+final class StubUpstream implements AutoCloseable {
+
+    private static final byte[] RESPONSE = ("{\"timestamp\":\"2025-01-01T00:00:00Z\","
+            + "\"message\":\"Hello from upstream\",\"service\":\"upstream\"}").getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    StubUpstream() throws IOException {
+        // Without TCP_NODELAY, Nagle + delayed ACK adds ~40ms to every keep-alive response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.createContext("/", exchange -> {
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                requestBody.transferTo(OutputStream.nullOutputStream());
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(RESPONSE);
+            }
+        });
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,91 @@
+package com.demo.receiver;
+
+/**
+ * Counts the items in an OTLP export request without generated protobuf classes.
+ *
+ * ExportTraceServiceRequest, ExportMetricsServiceRequest and ExportLogsServiceRequest
+ * share one shape:
+ *
+ *   request  { repeated Resource*  resource_* = 1; }
+ *   resource { repeated Scope*     scope_*    = 2; }
+ *   scope    { repeated Span|Metric|LogRecord = 2; }
+ *
+ * so the spans, metrics or log records are the field-2 entries of the field-2 entries of
+ * the field-1 entries. Only those length-delimited fields are followed; everything else
+ * is skipped by wire type, and the items themselves are not decoded.
+ */
+final class OtlpPayload {
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_FIXED64 = 1;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+    private static final int WIRE_FIXED32 = 5;
+
+    private OtlpPayload() {
+    }
+
+    /**
+     * Number of spans, metrics or log records in the request.
+     *
+     * @throws IllegalArgumentException if the bytes are not valid protobuf
+     */
+    static long countItems(byte[] request) {
+        return count(request, 0, request.length, 0);
+    }
+
+    // depth 0: request, 1: resource, 2: scope
+    private static long count(byte[] buffer, int offset, int end, int depth) {
+        int wanted = depth == 0 ? 1 : 2;
+        long items = 0;
+        int[] position = {offset};
+        while (position[0] < end) {
+            long tag = readVarint(buffer, position, end);
+            int field = (int) (tag >>> 3);
+            int wireType = (int) (tag & 0x7);
+            switch (wireType) {
+                case WIRE_VARINT:
+                    readVarint(buffer, position, end);
+                    break;
+                case WIRE_FIXED64:
+                    skip(position, 8, end);
+                    break;
+                case WIRE_FIXED32:
+                    skip(position, 4, end);
+                    break;
+                case WIRE_LENGTH_DELIMITED:
+                    long length = readVarint(buffer, position, end);
+                    int start = position[0];
+                    skip(position, length, end);
+                    if (field == wanted) {
+                        items += depth == 2 ? 1 : count(buffer, start, position[0], depth + 1);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported protobuf wire type " + wireType);
+            }
+        }
+        return items;
+    }
+
+    private static long readVarint(byte[] buffer, int[] position, int end) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (position[0] >= end) {
+                throw new IllegalArgumentException("Truncated varint");
+            }
+            byte b = buffer[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static void skip(int[] position, long length, int end) {
+        if (length < 0 || length > end - position[0]) {
+            throw new IllegalArgumentException("Truncated field");
+        }
+        position[0] += (int) length;
+    }
+}
@@ -0,0 +1,21 @@
+package com.demo.receiver;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Local stand-in for an OTLP/HTTP backend such as Honeycomb.
+ *
+ * Accepts OTLP/HTTP protobuf exports on /v1/traces, /v1/metrics and /v1/logs, counts
+ * what arrives and throws it away. Point an exporter at it
+ * (OTEL_EXPORTER_OTLP_ENDPOINT=http://localhost:4318) to measure export cost offline, and
+ * use the injected latency and failures to reproduce exporter queue saturation and
+ * retries. See OtlpReceiverController.
+ */
+@SpringBootApplication
+public class OtlpReceiverApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(OtlpReceiverApplication.class, args);
+    }
+}
@@ -0,0 +1,147 @@
+package com.demo.receiver;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * OTLP/HTTP endpoints plus the controls used by load tests.
+ *
+ * POST /v1/traces, /v1/metrics, /v1/logs (application/x-protobuf, optionally
+ * Content-Encoding: gzip) are answered like a real OTLP backend: 200 with an empty
+ * Export*ServiceResponse. Before answering, the receiver
+ * 1. waits latency plus a random 0..latency-jitter (a slow backend)
+ * 2. fails failure-rate of the requests with failure-status (503 by default, which OTLP
+ *    exporters retry)
+ * 3. counts the batch, its items and bytes (see ReceiverStats)
+ *
+ * OTLP/JSON is not supported (415).
+ *
+ * GET /config shows the fault settings. PUT /config?latency=200ms&failureRate=0.5 changes
+ * them at runtime, so one receiver can take a test through healthy, slow and failing
+ * phases. GET /stats and DELETE /stats read and reset the counters.
+ */
+@RestController
+public class OtlpReceiverController {
+
+    private static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+
+    private final ReceiverStats stats;
+    private volatile Faults faults;
+
+    public OtlpReceiverController(
+            ReceiverStats stats,
+            @Value("${receiver.latency:0ms}") Duration latency,
+            @Value("${receiver.latency-jitter:0ms}") Duration latencyJitter,
+            @Value("${receiver.failure-rate:0.0}") double failureRate,
+            @Value("${receiver.failure-status:503}") int failureStatus) {
+        this.stats = stats;
+        this.faults = new Faults(latency, latencyJitter, failureRate, failureStatus);
+    }
+
+    /**
+     * Fault injection settings; replaced as a whole so a request sees a consistent set.
+     */
+    public record Faults(Duration latency, Duration latencyJitter, double failureRate, int failureStatus) {
+    }
+
+    @PostMapping("/v1/{signal}")
+    public ResponseEntity<byte[]> export(
+            @PathVariable String signal,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @RequestBody(required = false) byte[] body) throws InterruptedException {
+        Signal resolved = Signal.fromPath(signal);
+        if (resolved == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown signal: " + signal);
+        }
+        if (contentType == null || !PROTOBUF.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Only application/x-protobuf is supported");
+        }
+        byte[] wire = body != null ? body : new byte[0];
+
+        Faults current = faults;
+        long delayMillis = current.latency().toMillis();
+        if (!current.latencyJitter().isZero()) {
+            delayMillis += ThreadLocalRandom.current().nextLong(current.latencyJitter().toMillis() + 1);
+        }
+        if (delayMillis > 0) {
+            Thread.sleep(delayMillis);
+        }
+        if (current.failureRate() > 0 && ThreadLocalRandom.current().nextDouble() < current.failureRate()) {
+            stats.failed(resolved);
+            return ResponseEntity.status(current.failureStatus()).build();
+        }
+
+        long items;
+        byte[] decoded;
+        try {
+            decoded = decode(wire, contentEncoding);
+            items = OtlpPayload.countItems(decoded);
+        } catch (IOException | IllegalArgumentException e) {
+            stats.invalid(resolved);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid OTLP payload: " + e.getMessage());
+        }
+        stats.accepted(resolved, items, wire.length, decoded.length);
+
+        // An empty Export*ServiceResponse encodes to zero bytes
+        return ResponseEntity.ok().contentType(PROTOBUF).body(new byte[0]);
+    }
+
+    @GetMapping("/config")
+    public Faults getConfig() {
+        return faults;
+    }
+
+    @PutMapping("/config")
+    public Faults updateConfig(
+            @RequestParam(required = false) String latency,
+            @RequestParam(required = false) String latencyJitter,
+            @RequestParam(required = false) Double failureRate,
+            @RequestParam(required = false) Integer failureStatus) {
+        // Same formats as the properties (200ms, 1s, PT0.2S)
+        Faults current = faults;
+        faults = new Faults(
+                latency != null ? DurationStyle.detectAndParse(latency) : current.latency(),
+                latencyJitter != null ? DurationStyle.detectAndParse(latencyJitter) : current.latencyJitter(),
+                failureRate != null ? failureRate : current.failureRate(),
+                failureStatus != null ? failureStatus : current.failureStatus());
+        return faults;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return stats.snapshot();
+    }
+
+    @DeleteMapping("/stats")
+    public ResponseEntity<Void> resetStats() {
+        stats.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    private static byte[] decode(byte[] wire, String contentEncoding) throws IOException {
+        if (contentEncoding == null || contentEncoding.equalsIgnoreCase("identity")) {
+            return wire;
+        }
+        if (!contentEncoding.equalsIgnoreCase("gzip")) {
+            throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(wire))) {
+            return in.readAllBytes();
+        }
+    }
+}
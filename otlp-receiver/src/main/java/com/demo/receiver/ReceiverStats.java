@@ -0,0 +1,113 @@
+package com.demo.receiver;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What the receiver has been sent, per signal.
+ *
+ * - batches      - export requests accepted (one per exporter batch)
+ * - items        - spans, metrics or log records in accepted batches
+ * - bytes        - request bytes on the wire (compressed, if the exporter compresses)
+ * - bytes.uncompressed - the same after Content-Encoding is removed
+ * - failed       - requests answered with an injected failure
+ * - invalid      - requests that were not valid OTLP protobuf
+ *
+ * GET /stats returns the counters as JSON and DELETE /stats resets them between test
+ * runs. They are also on /actuator/metrics as otlp.receiver.* with a signal tag (the
+ * counters restart from zero after a reset).
+ */
+@Component
+public class ReceiverStats implements MeterBinder {
+
+    private final Map<Signal, Counters> counters = new EnumMap<>(Signal.class);
+
+    public ReceiverStats() {
+        for (Signal signal : Signal.values()) {
+            counters.put(signal, new Counters());
+        }
+    }
+
+    void accepted(Signal signal, long items, long wireBytes, long uncompressedBytes) {
+        Counters c = counters.get(signal);
+        c.batches.increment();
+        c.items.add(items);
+        c.bytes.add(wireBytes);
+        c.uncompressedBytes.add(uncompressedBytes);
+    }
+
+    void failed(Signal signal) {
+        counters.get(signal).failed.increment();
+    }
+
+    void invalid(Signal signal) {
+        counters.get(signal).invalid.increment();
+    }
+
+    Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        counters.forEach((signal, c) -> {
+            long batches = c.batches.sum();
+            long items = c.items.sum();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("batches", batches);
+            values.put("items", items);
+            values.put("bytes", c.bytes.sum());
+            values.put("uncompressedBytes", c.uncompressedBytes.sum());
+            values.put("itemsPerBatch", batches > 0 ? (double) items / batches : 0.0);
+            values.put("failed", c.failed.sum());
+            values.put("invalid", c.invalid.sum());
+            snapshot.put(signal.path(), values);
+        });
+        return snapshot;
+    }
+
+    void reset() {
+        counters.values().forEach(Counters::reset);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counters.forEach((signal, c) -> {
+            bind(registry, "otlp.receiver.batches", "Export requests accepted", signal, c.batches);
+            bind(registry, "otlp.receiver.items", "Spans, metrics or log records received", signal, c.items);
+            bind(registry, "otlp.receiver.bytes", "Request bytes on the wire", signal, c.bytes);
+            bind(registry, "otlp.receiver.bytes.uncompressed", "Request bytes after decompression", signal, c.uncompressedBytes);
+            bind(registry, "otlp.receiver.failed", "Requests answered with an injected failure", signal, c.failed);
+            bind(registry, "otlp.receiver.invalid", "Requests that were not valid OTLP protobuf", signal, c.invalid);
+        });
+    }
+
+    private static void bind(MeterRegistry registry, String name, String description, Signal signal, LongAdder count) {
+        FunctionCounter.builder(name, count, LongAdder::sum)
+                .description(description)
+                .tag("signal", signal.path())
+                .register(registry);
+    }
+
+    private static class Counters {
+
+        final LongAdder batches = new LongAdder();
+        final LongAdder items = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder uncompressedBytes = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder invalid = new LongAdder();
+
+        void reset() {
+            batches.reset();
+            items.reset();
+            bytes.reset();
+            uncompressedBytes.reset();
+            failed.reset();
+            invalid.reset();
+        }
+    }
+}
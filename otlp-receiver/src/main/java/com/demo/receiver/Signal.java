@@ -0,0 +1,23 @@
+package com.demo.receiver;
+
+import java.util.Locale;
+
+/**
+ * OTLP signal, named after its /v1/{signal} path.
+ */
+enum Signal {
+    TRACES, METRICS, LOGS;
+
+    String path() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Signal fromPath(String path) {
+        for (Signal signal : values()) {
+            if (signal.path().equals(path)) {
+                return signal;
+            }
+        }
+        return null;
+    }
+}
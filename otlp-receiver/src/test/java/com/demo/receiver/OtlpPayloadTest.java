@@ -0,0 +1,152 @@
+package com.demo.receiver;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OtlpPayloadTest {
+
+    // Field numbers shared by the three OTLP export requests (see OtlpPayload)
+    private static final int RESOURCE_ITEMS = 1;
+    private static final int RESOURCE = 1;
+    private static final int SCOPE_ITEMS = 2;
+    private static final int SCHEMA_URL = 3;
+    private static final int SCOPE = 1;
+    private static final int ITEMS = 2;
+
+    @Test
+    void countsItemsAcrossResourcesAndScopes() {
+        byte[] request = message()
+                .bytes(RESOURCE_ITEMS, message()
+                        .bytes(RESOURCE, message().string(1, "service.name"))
+                        .bytes(SCOPE_ITEMS, scope(2))
+                        .bytes(SCOPE_ITEMS, scope(3))
+                        .string(SCHEMA_URL, "https://opentelemetry.io/schemas/1.21.0"))
+                .bytes(RESOURCE_ITEMS, message()
+                        .bytes(SCOPE_ITEMS, scope(1)))
+                .build();
+
+        assertThat(OtlpPayload.countItems(request)).isEqualTo(6);
+    }
+
+    @Test
+    void skipsFieldsOfEveryWireType() {
+        byte[] request = message()
+                .varint(5, 300)
+                .fixed64(6)
+                .fixed32(7)
+                .bytes(RESOURCE_ITEMS, message()
+                        .varint(9, 1)
+                        .bytes(SCOPE_ITEMS, message()
+                                .bytes(SCOPE, message().string(1, "io.opentelemetry.sdk.trace"))
+                                .fixed64(8)
+                                .bytes(ITEMS, span())
+                                .string(SCHEMA_URL, "")))
+                .build();
+
+        assertThat(OtlpPayload.countItems(request)).isEqualTo(1);
+    }
+
+    @Test
+    void emptyRequestHasNoItems() {
+        assertThat(OtlpPayload.countItems(new byte[0])).isZero();
+        assertThat(OtlpPayload.countItems(message().bytes(RESOURCE_ITEMS, message()).build())).isZero();
+    }
+
+    @Test
+    void rejectsTruncatedOrMalformedInput() {
+        byte[] request = message().bytes(RESOURCE_ITEMS, message().bytes(SCOPE_ITEMS, scope(2))).build();
+        byte[] truncated = new byte[request.length - 1];
+        System.arraycopy(request, 0, truncated, 0, truncated.length);
+
+        assertThatThrownBy(() -> OtlpPayload.countItems(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Tag with wire type 3 (start group), which OTLP never uses
+        assertThatThrownBy(() -> OtlpPayload.countItems(new byte[] {0x0B}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("wire type 3");
+        // Varint whose continuation bit is set on the last byte
+        assertThatThrownBy(() -> OtlpPayload.countItems(new byte[] {0x08, (byte) 0x80}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Truncated varint");
+    }
+
+    private static Message scope(int items) {
+        Message scope = message().bytes(SCOPE, message().string(1, "com.demo.backend"));
+        for (int i = 0; i < items; i++) {
+            scope.bytes(ITEMS, span());
+        }
+        return scope;
+    }
+
+    // Enough of a Span to have nested length-delimited fields that must not be counted
+    private static Message span() {
+        return message()
+                .bytes(1, message().fixed64(1))
+                .string(5, "proxy-request")
+                .bytes(9, message().string(1, "http.method").bytes(2, message().string(1, "GET")));
+    }
+
+    private static Message message() {
+        return new Message();
+    }
+
+    /** Minimal protobuf writer for building test requests. */
+    private static final class Message {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Message varint(int field, long value) {
+            tag(field, 0);
+            writeVarint(value);
+            return this;
+        }
+
+        Message fixed64(int field) {
+            tag(field, 1);
+            out.writeBytes(new byte[8]);
+            return this;
+        }
+
+        Message fixed32(int field) {
+            tag(field, 5);
+            out.writeBytes(new byte[4]);
+            return this;
+        }
+
+        Message string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Message bytes(int field, Message value) {
+            return bytes(field, value.build());
+        }
+
+        Message bytes(int field, byte[] value) {
+            tag(field, 2);
+            writeVarint(value.length);
+            out.writeBytes(value);
+            return this;
+        }
+
+        byte[] build() {
+            return out.toByteArray();
+        }
+
+        private void tag(int field, int wireType) {
+            writeVarint((long) field << 3 | wireType);
+        }
+
+        private void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.demo.upstream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+
+/**
+ * Makes server.compression.min-response-size apply to Spring MVC responses.
+ *
+ * Tomcat decides whether to gzip when the response is committed, and only knows the size
+ * if the whole body is still buffered at that point. Spring's message converters flush
+ * after writing the body, which commits it without a Content-Length, so even a 100 byte
+ * JSON response was compressed.
+ *
+ * This filter ignores flushes until min-response-size bytes have been written (and makes
+ * the response buffer at least that large). A small body then reaches the end of the
+ * request uncommitted, Tomcat sets its Content-Length and skips compression. Larger
+ * bodies flush as before once past the threshold.
+ *
+ * Streamed responses (StreamingResponseBody, written while the request is in async mode)
+ * are not deferred: each of their flushes is meant to put the lines written so far on the
+ * wire, so they pass straight through and Tomcat compresses the stream chunk by chunk.
+ */
+@Component
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+    private final int minResponseSize;
+
+    public CompressionThresholdFilter(@Value("${server.compression.min-response-size:2KB}") DataSize minResponseSize) {
+        this.minResponseSize = (int) minResponseSize.toBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (response.getBufferSize() < minResponseSize) {
+            response.setBufferSize(minResponseSize);
+        }
+        chain.doFilter(request, new DeferredFlushResponse(request, response, minResponseSize));
+    }
+
+    private static class DeferredFlushResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private final int minResponseSize;
+        private DeferredFlushOutputStream outputStream;
+
+        DeferredFlushResponse(HttpServletRequest request, HttpServletResponse response, int minResponseSize) {
+            super(response);
+            this.request = request;
+            this.minResponseSize = minResponseSize;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new DeferredFlushOutputStream(super.getOutputStream(), request, minResponseSize);
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (outputStream == null || outputStream.flushes()) {
+                super.flushBuffer();
+            }
+        }
+    }
+
+    private static class DeferredFlushOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+        private final HttpServletRequest request;
+        private final int minResponseSize;
+        private long written;
+
+        DeferredFlushOutputStream(ServletOutputStream delegate, HttpServletRequest request, int minResponseSize) {
+            this.delegate = delegate;
+            this.request = request;
+            this.minResponseSize = minResponseSize;
+        }
+
+        // Past the threshold, or a streamed response whose flushes must reach the client
+        boolean flushes() {
+            return written >= minResponseSize || request.isAsyncStarted();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            written += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (flushes()) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.demo.upstream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Summary of a received payload, returned as receivedPayloadDigest instead of echoing
+ * the payload when the caller sends Prefer: return=minimal.
+ *
+ * size and sha256 are taken over the payload written as compact JSON straight into the
+ * digest (nothing is buffered), so the digest does not depend on the wire format that
+ * carried it. keys is the number of top-level properties.
+ */
+public record PayloadDigest(long size, int keys, String sha256) {
+
+    public static PayloadDigest of(ObjectMapper objectMapper, Map<String, Object> payload) throws IOException {
+        DigestSink sink = new DigestSink();
+        objectMapper.writeValue(sink, payload);
+        return new PayloadDigest(sink.size, payload.size(), HexFormat.of().formatHex(sink.sha256.digest()));
+    }
+
+    private static class DigestSink extends OutputStream {
+
+        private final MessageDigest sha256;
+        private long size;
+
+        DigestSink() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            sha256.update((byte) b);
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            sha256.update(b, off, len);
+            size += len;
+        }
+    }
+}
@@ -1,50 +1,229 @@
 package com.demo.upstream;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.Instant;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
 public class UpstreamController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
+    // RFC 7240: the caller does not need its payload echoed back (see PayloadDigest)
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RETURN_MINIMAL = "return=minimal";
+
+    // Lines written between flushes of a streamed response
+    private static final int STREAM_FLUSH_LINES = 64;
+
+    private static final Map<HttpMethod, String> MESSAGES = Map.of(
+            HttpMethod.GET, "Hello from upstream",
+            HttpMethod.POST, "Hello from upstream (POST)",
+            HttpMethod.PUT, "Hello from upstream (PUT)",
+            HttpMethod.DELETE, "Hello from upstream (DELETE)");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${batch.max-items:1000}")
+    private int batchMaxItems;
+
+    @Value("${stream.max-count:1000000}")
+    private int streamMaxCount;
+
     @GetMapping("/backend_to_upstream")
-    public Map<String, Object> getTimestamp() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("timestamp", Instant.now().toString());
-        response.put("message", "Hello from upstream");
-        response.put("service", "upstream");
-        return response;
+    public UpstreamResponse getTimestamp() {
+        return new UpstreamResponse(Instant.now().toString(), MESSAGES.get(HttpMethod.GET), "upstream", null, null);
     }
 
     @PostMapping("/backend_to_upstream")
-    public Map<String, Object> postTimestamp(@RequestBody(required = false) Map<String, Object> payload) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("timestamp", Instant.now().toString());
-        response.put("message", "Hello from upstream (POST)");
-        response.put("service", "upstream");
-        response.put("receivedPayload", payload);
-        return response;
+    public ResponseEntity<UpstreamResponse> postTimestamp(
+            @RequestBody(required = false) Map<String, Object> payload,
+            @RequestHeader(value = PREFER, required = false) String prefer) throws IOException {
+        return received(HttpMethod.POST, payload, prefer);
     }
 
     @PutMapping("/backend_to_upstream")
-    public Map<String, Object> putTimestamp(@RequestBody(required = false) Map<String, Object> payload) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("timestamp", Instant.now().toString());
-        response.put("message", "Hello from upstream (PUT)");
-        response.put("service", "upstream");
-        response.put("receivedPayload", payload);
-        return response;
+    public ResponseEntity<UpstreamResponse> putTimestamp(
+            @RequestBody(required = false) Map<String, Object> payload,
+            @RequestHeader(value = PREFER, required = false) String prefer) throws IOException {
+        return received(HttpMethod.PUT, payload, prefer);
     }
 
     @DeleteMapping("/backend_to_upstream")
-    public Map<String, Object> deleteTimestamp() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("timestamp", Instant.now().toString());
-        response.put("message", "Hello from upstream (DELETE)");
-        response.put("service", "upstream");
-        return response;
+    public UpstreamResponse deleteTimestamp() {
+        return new UpstreamResponse(Instant.now().toString(), MESSAGES.get(HttpMethod.DELETE), "upstream", null, null);
+    }
+
+    /**
+     * Answers a write: the payload is echoed back as receivedPayload, or summarized as
+     * receivedPayloadDigest when the caller sent Prefer: return=minimal.
+     */
+    private ResponseEntity<UpstreamResponse> received(HttpMethod method, Map<String, Object> payload, String prefer)
+            throws IOException {
+        String timestamp = Instant.now().toString();
+        if (!returnMinimal(prefer)) {
+            return ResponseEntity.ok(new UpstreamResponse(timestamp, MESSAGES.get(method), "upstream", payload, null));
+        }
+        PayloadDigest digest = payload != null ? PayloadDigest.of(objectMapper, payload) : null;
+        return ResponseEntity.ok()
+                .header(PREFERENCE_APPLIED, RETURN_MINIMAL)
+                .body(new UpstreamResponse(timestamp, MESSAGES.get(method), "upstream", null, digest));
+    }
+
+    /**
+     * Answers N operations, [{"method": "POST", "payload": {...}}, ...], in one response.
+     *
+     * The result array is streamed: each element is written with the JsonGenerator as
+     * soon as it is built, so no result list or per-item HashMap is held, and the
+     * timestamp is formatted once per batch. Element i answers item i with the same
+     * fields as the single-item endpoint (including Prefer: return=minimal); a null item
+     * or an item with an unknown method gets {"error"}.
+     */
+    @PostMapping("/backend_to_upstream/batch")
+    public ResponseEntity<StreamingResponseBody> batch(
+            @RequestBody List<Map<String, Object>> items,
+            @RequestHeader(value = PREFER, required = false) String prefer) {
+        checkBatchSize(items);
+
+        String timestamp = Instant.now().toString();
+        boolean digest = returnMinimal(prefer);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                for (Map<String, Object> item : items) {
+                    writeBatchResult(generator, timestamp, item, digest);
+                }
+                generator.writeEndArray();
+            }
+        };
+        return batchResponse(MediaType.APPLICATION_JSON, digest).body(body);
+    }
+
+    /**
+     * NDJSON variant of the batch endpoint (Accept: application/x-ndjson): one result
+     * object per line, flushed every STREAM_FLUSH_LINES lines.
+     */
+    @PostMapping(value = "/backend_to_upstream/batch", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> batchNdjson(
+            @RequestBody List<Map<String, Object>> items,
+            @RequestHeader(value = PREFER, required = false) String prefer) {
+        checkBatchSize(items);
+
+        String timestamp = Instant.now().toString();
+        boolean digest = returnMinimal(prefer);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                int lines = 0;
+                for (Map<String, Object> item : items) {
+                    writeBatchResult(generator, timestamp, item, digest);
+                    endLine(generator, ++lines);
+                }
+            }
+        };
+        return batchResponse(MediaType.parseMediaType(NDJSON), digest).body(body);
+    }
+
+    /**
+     * Streaming producer: count records as NDJSON ({"seq", "timestamp", "service"} per
+     * line), written and flushed as they are generated, so neither side has to hold the
+     * whole response. Used by the backends' /api/frontend_to_backend/stream endpoint.
+     */
+    @GetMapping(value = "/backend_to_upstream/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(defaultValue = "100") int count) {
+        if (count < 0 || count > streamMaxCount) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "count must be between 0 and " + streamMaxCount);
+        }
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.setRootValueSeparator(null);
+                for (int seq = 0; seq < count; seq++) {
+                    generator.writeStartObject();
+                    generator.writeNumberField("seq", seq);
+                    generator.writeStringField("timestamp", Instant.now().toString());
+                    generator.writeStringField("service", "upstream");
+                    generator.writeEndObject();
+                    endLine(generator, seq + 1);
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private void checkBatchSize(List<Map<String, Object>> items) {
+        if (items.size() > batchMaxItems) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch too large, max " + batchMaxItems + " items");
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder batchResponse(MediaType contentType, boolean digest) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(contentType);
+        return digest ? response.header(PREFERENCE_APPLIED, RETURN_MINIMAL) : response;
+    }
+
+    /**
+     * True when a Prefer header (RFC 7240) contains return=minimal.
+     */
+    private static boolean returnMinimal(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.trim().equalsIgnoreCase(RETURN_MINIMAL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void endLine(JsonGenerator generator, int lines) throws IOException {
+        generator.writeRaw('\n');
+        if (lines % STREAM_FLUSH_LINES == 0) {
+            generator.flush();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void writeBatchResult(JsonGenerator generator, String timestamp, Map<String, Object> item, boolean digest)
+            throws IOException {
+        // A null element of the JSON array is an invalid item, like a missing method
+        Object method = item != null ? item.get("method") : null;
+        HttpMethod httpMethod = method instanceof String ? HttpMethod.resolve(((String) method).toUpperCase()) : null;
+
+        generator.writeStartObject();
+        if (httpMethod == null || !MESSAGES.containsKey(httpMethod)) {
+            generator.writeStringField("error", "Unsupported method: " + method);
+        } else {
+            generator.writeStringField("timestamp", timestamp);
+            generator.writeStringField("message", MESSAGES.get(httpMethod));
+            if (httpMethod == HttpMethod.POST || httpMethod == HttpMethod.PUT) {
+                Object payload = item.get("payload");
+                if (digest && payload instanceof Map) {
+                    generator.writeObjectField("receivedPayloadDigest",
+                            PayloadDigest.of(objectMapper, (Map<String, Object>) payload));
+                } else {
+                    generator.writeObjectField("receivedPayload", payload);
+                }
+            }
+        }
+        generator.writeStringField("service", "upstream");
+        generator.writeEndObject();
     }
 }
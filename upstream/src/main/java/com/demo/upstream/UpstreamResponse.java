@@ -0,0 +1,22 @@
+package com.demo.upstream;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+/**
+ * Body of /api/backend_to_upstream: {"timestamp", "message", "service", "receivedPayload"}.
+ *
+ * A record is serialized by a bean serializer with a fixed property list instead of
+ * walking a HashMap built per request. receivedPayload echoes the caller's arbitrary
+ * JSON, so it stays a Map, and is omitted for GET and DELETE. With Prefer: return=minimal
+ * the payload is replaced by receivedPayloadDigest (see PayloadDigest).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UpstreamResponse(
+        String timestamp,
+        String message,
+        String service,
+        Map<String, Object> receivedPayload,
+        PayloadDigest receivedPayloadDigest) {
+}
@@ -0,0 +1,37 @@
+package com.demo.upstream;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary wire formats for /api/backend_to_upstream.
+ *
+ * A backend configured with upstream.wire-format=cbor|smile sends its payload as CBOR
+ * (application/cbor) or Smile (application/x-jackson-smile) in Content-Type, and gets
+ * the UpstreamResponse back in that format (Accept).
+ *
+ * With jackson-dataformat-cbor and -smile on the classpath, Spring MVC's default
+ * converters already include CBOR and Smile, built on a plain ObjectMapper. Spring Boot's
+ * HttpMessageConverters puts a converter bean directly ahead of the default converter of
+ * the same class. So these beans, which carry the application's Jackson settings
+ * (e.g. Blackbird, see JacksonConfig), are the ones Spring MVC picks. The JSON converter
+ * stays ahead of them, so requests without an explicit Accept header still get JSON.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder jacksonBuilder) {
+        return new MappingJackson2CborHttpMessageConverter(jacksonBuilder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder jacksonBuilder) {
+        return new MappingJackson2SmileHttpMessageConverter(jacksonBuilder.factory(new SmileFactory()).build());
+    }
+}
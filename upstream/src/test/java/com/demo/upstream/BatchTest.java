@@ -0,0 +1,66 @@
+package com.demo.upstream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A null element of the batch array gets an error result; the rest of the streamed
+ * response is still written.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BatchTest {
+
+    private static final String BATCH = "/api/backend_to_upstream/batch";
+    private static final String ITEMS = "[null, {\"method\": \"GET\"}]";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ResponseEntity<String> post(MediaType accept) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(accept));
+        return restTemplate.postForEntity(BATCH, new HttpEntity<>(ITEMS, headers), String.class);
+    }
+
+    private static void assertResults(JsonNode nullItem, JsonNode getItem) {
+        assertThat(nullItem.get("error").asText()).isEqualTo("Unsupported method: null");
+        assertThat(getItem.get("message").asText()).isEqualTo("Hello from upstream");
+    }
+
+    @Test
+    void nullItemGetsAnErrorResult() throws Exception {
+        ResponseEntity<String> response = post(MediaType.APPLICATION_JSON);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode results = objectMapper.readTree(response.getBody());
+        assertThat(results).hasSize(2);
+        assertResults(results.get(0), results.get(1));
+    }
+
+    @Test
+    void nullItemGetsAnErrorLineInNdjson() throws Exception {
+        ResponseEntity<String> response = post(MediaType.parseMediaType("application/x-ndjson"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String[] lines = response.getBody().split("\n");
+        assertThat(lines).hasSize(2);
+        assertResults(objectMapper.readTree(lines[0]), objectMapper.readTree(lines[1]));
+    }
+}
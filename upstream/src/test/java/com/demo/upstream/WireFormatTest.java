@@ -0,0 +1,75 @@
+package com.demo.upstream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A backend with upstream.wire-format=cbor sends CBOR and accepts CBOR; the payload comes
+ * back as receivedPayload, decoded and encoded by WireFormatConfig's converter.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class WireFormatTest {
+
+    private static final ObjectMapper CBOR = new ObjectMapper(new CBORFactory());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestMappingHandlerAdapter handlerAdapter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void payloadRoundTripsAsCbor() throws Exception {
+        Map<String, Object> payload = Map.of("name", "cbor", "count", 3, "nested", Map.of("ok", true));
+
+        MvcResult result = mockMvc.perform(post("/api/backend_to_upstream")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(CBOR.writeValueAsBytes(payload)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        Map<String, Object> body = CBOR.readValue(result.getResponse().getContentAsByteArray(), Map.class);
+        assertThat(body).containsEntry("message", "Hello from upstream (POST)")
+                .containsEntry("receivedPayload", payload);
+    }
+
+    @Test
+    void requestWithoutAcceptGetsJson() throws Exception {
+        mockMvc.perform(post("/api/backend_to_upstream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"json\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void springMvcPicksTheConfiguredCborConverter() {
+        assertThat(handlerAdapter.getMessageConverters())
+                .filteredOn(MappingJackson2CborHttpMessageConverter.class::isInstance)
+                .first()
+                .isSameAs(cborConverter);
+    }
+}